@@ -0,0 +1,54 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.PgnGame;
+
+/**
+ * Positions shared by the benchmarks, built through the public game API
+ */
+final class BenchmarkPositions {
+    // 1.e4 e5 2.Nf3 Nc6 3.Bc4 Bc5 4.d3 d6 5.Nc3 Nf6 6.Bg5 h6, white to move
+    private static final String[] ITALIAN_OPENING = {
+            "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5",
+            "d2d3", "d7d6", "b1c3", "g8f6", "c1g5", "h7h6"
+    };
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * @return a typical middlegame with every piece type still mobile
+     */
+    static ChessGame middlegame() {
+        ChessGame game = new ChessGame();
+        try {
+            for (String move : ITALIAN_OPENING) {
+                game.makeMove(new ChessMove(square(move.substring(0, 2)), square(move.substring(2, 4)), null));
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("Benchmark opening is not legal", e);
+        }
+        return game;
+    }
+
+    /**
+     * @return the moves leading to {@link #middlegame()} as a PGN game
+     */
+    static PgnGame middlegamePgn() throws InvalidMoveException {
+        PgnGame game = new PgnGame();
+        for (String move : ITALIAN_OPENING) {
+            game.addMove(new ChessMove(square(move.substring(0, 2)), square(move.substring(2, 4)), null));
+        }
+        return game;
+    }
+
+    /**
+     * @return the position for a square in algebraic notation, e.g. "e4"
+     */
+    static ChessPosition square(String name) {
+        return new ChessPosition(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+    }
+}
@@ -0,0 +1,25 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the benchmark jar. Accepts the usual JMH command line options
+ * (benchmark regex, -f, -wi, -i, ...) and always adds the GC profiler so every run
+ * reports allocation rates alongside throughput.
+ * <p>
+ * {@code java -jar benchmarks/target/benchmarks-test-dependencies.jar [jmh options]}
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legal move generation, game status queries and board copies in a middlegame position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    private ChessGame game;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkPositions.middlegame();
+    }
+
+    /**
+     * The middlegame with its cached status dropped before every call, so the checkmate
+     * and stalemate benchmarks measure the status computation rather than a cache hit
+     */
+    @State(Scope.Thread)
+    public static class UncachedGame {
+        private ChessGame game;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            game = BenchmarkPositions.middlegame();
+        }
+
+        @Setup(Level.Invocation)
+        public void dropStatus() throws InvalidMoveException {
+            // Taking a move back and replaying it restores the position with no cached status
+            ChessMove last = game.undo();
+            game.makeMove(last);
+        }
+    }
+
+    @Benchmark
+    public void validMovesAllPieces(Blackhole blackhole) {
+        ChessBoard board = game.getBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    blackhole.consume(game.validMoves(position));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate(UncachedGame uncached) {
+        return uncached.game.isInCheckmate(uncached.game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate(UncachedGame uncached) {
+        return uncached.game.isInStalemate(uncached.game.getTeamTurn());
+    }
+
+    @Benchmark
+    public ChessBoard copyBoard() {
+        return new ChessBoard(game.getBoard());
+    }
+}
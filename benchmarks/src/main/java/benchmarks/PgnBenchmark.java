@@ -0,0 +1,58 @@
+package benchmarks;
+
+import chess.InvalidMoveException;
+import chess.PgnGame;
+import chess.PgnReader;
+import chess.PgnWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk PGN import and export throughput, reported per game
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PgnBenchmark {
+    private static final int GAMES = 1_000;
+
+    private String pgn;
+    private PgnGame game;
+
+    @Setup
+    public void setUp() throws IOException, InvalidMoveException {
+        game = BenchmarkPositions.middlegamePgn();
+        StringWriter out = new StringWriter();
+        PgnWriter writer = new PgnWriter(out);
+        for (int i = 0; i < GAMES; i++) {
+            writer.write(game);
+        }
+        pgn = out.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public int read() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader(pgn));
+        int plies = 0;
+        PgnGame next;
+        while ((next = reader.next()) != null) {
+            plies += next.getPlyCount();
+        }
+        return plies;
+    }
+
+    @Benchmark
+    public String write() throws IOException {
+        StringWriter out = new StringWriter();
+        new PgnWriter(out).write(game);
+        return out.toString();
+    }
+}
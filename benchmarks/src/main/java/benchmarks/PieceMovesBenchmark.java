@@ -0,0 +1,49 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChessPiece.pieceMoves for one white piece of each type in a middlegame position
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+    private static final Map<ChessPiece.PieceType, String> SQUARES = Map.of(
+            ChessPiece.PieceType.KING, "e1",
+            ChessPiece.PieceType.QUEEN, "d1",
+            ChessPiece.PieceType.BISHOP, "c4",
+            ChessPiece.PieceType.KNIGHT, "f3",
+            ChessPiece.PieceType.ROOK, "h1",
+            ChessPiece.PieceType.PAWN, "a2");
+
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType type;
+
+    private ChessBoard board;
+    private ChessPosition position;
+    private ChessPiece piece;
+
+    @Setup
+    public void setUp() {
+        board = BenchmarkPositions.middlegame().getBoard();
+        position = BenchmarkPositions.square(SQUARES.get(type));
+        piece = board.getPiece(position);
+    }
+
+    @Benchmark
+    public Collection<ChessMove> pieceMoves() {
+        return piece.pieceMoves(board, position);
+    }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth analysis of a middlegame position from an empty table, by number of
+ * search threads
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private ChessGame game;
+    private ParallelSearch search;
+
+    @Setup
+    public void setUp() {
+        game = ChessGame.fromFen(KIWIPETE);
+        search = new ParallelSearch(threads, new TranspositionTable(64));
+    }
+
+    @TearDown
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    public SearchResult depth7() {
+        search.getTable().clear();
+        return search.search(game, SearchLimits.depth(7));
+    }
+}
@@ -0,0 +1,69 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessGameCodec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson round trip of a ChessGame, as done for every database write and LoadGame message,
+ * against the binary {@link ChessGameCodec} snapshot and FEN
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private String json;
+    private byte[] encoded;
+    private String fen;
+
+    @Setup
+    public void setUp() {
+        game = BenchmarkPositions.middlegame();
+        json = gson.toJson(game);
+        encoded = ChessGameCodec.encode(game);
+        fen = game.toFen();
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame roundTrip() {
+        return gson.fromJson(gson.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return ChessGameCodec.encode(game);
+    }
+
+    @Benchmark
+    public ChessGame decode() {
+        return ChessGameCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public String toFen() {
+        return game.toFen();
+    }
+
+    @Benchmark
+    public ChessGame fromFen() {
+        return ChessGame.fromFen(fen);
+    }
+}
@@ -11,5 +11,7 @@ public class Main {
 
         int port = 8080;
         server.run(port);
+        // Flushes games still waiting to be written
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
     }
 }
\ No newline at end of file
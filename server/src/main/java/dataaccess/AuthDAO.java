@@ -20,6 +20,10 @@ public class AuthDAO {
         return auth.containsKey(token);
     }
 
+    public AuthData getAuthData(String token) {
+        return token == null ? null : auth.get(token);
+    }
+
     public Map<String, AuthData> getAuth() {
         return auth;
     }
@@ -0,0 +1,333 @@
+package dataaccess;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of JDBC connections. {@link #getConnection()} hands out a wrapper whose
+ * {@code close()} returns the connection to the pool, so DAOs keep using
+ * try-with-resources exactly as they would with a fresh connection.
+ * <p>
+ * At most {@code maxSize} connections exist at once; a caller that finds them all in use
+ * waits up to the acquisition timeout and then gets a {@link DataAccessException}.
+ * Connections idle for longer than the validation interval are checked with
+ * {@link Connection#isValid} before they are handed out. A background task closes
+ * connections that have been idle too long (down to {@code minSize}), tops the pool up
+ * to {@code minSize}, and, when a leak threshold is set, logs connections held past it
+ * along with the stack trace of the code that borrowed them. Recording that trace costs
+ * a stack walk per borrow, so leak detection is off by default.
+ */
+public class ConnectionPool implements AutoCloseable {
+    /**
+     * Opens a new physical connection
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    /**
+     * @param minSize connections kept open even when idle
+     * @param maxSize most connections open at once
+     * @param idleTimeoutMillis idle time after which a connection above the minimum is closed
+     * @param acquireTimeoutMillis longest a caller waits for a connection
+     * @param validationIntervalMillis idle time after which a connection is validated before use
+     * @param leakThresholdMillis time a connection may be held before it is reported, or 0 to disable
+     */
+    public record Settings(int minSize, int maxSize, long idleTimeoutMillis, long acquireTimeoutMillis,
+                           long validationIntervalMillis, long leakThresholdMillis) {
+        public static final Settings DEFAULT = new Settings(2, 16, 60_000, 5_000, 1_000, 0);
+
+        public Settings {
+            if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+                throw new IllegalArgumentException("Pool sizes must satisfy 0 <= min <= max and max >= 1");
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the pool's counters
+     *
+     * @param total open connections
+     * @param idle connections waiting in the pool
+     * @param active connections handed out
+     * @param waiting callers blocked waiting for a connection
+     * @param created connections opened since the pool started
+     * @param closed connections closed since the pool started
+     * @param acquired successful {@link #getConnection()} calls
+     * @param timeouts {@link #getConnection()} calls that gave up waiting
+     * @param leaks connections reported as held past the leak threshold
+     * @param averageAcquireMicros mean time spent in {@link #getConnection()}
+     */
+    public record Stats(int total, int idle, int active, int waiting, long created, long closed, long acquired,
+                        long timeouts, long leaks, long averageAcquireMicros) {
+    }
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionPool.class);
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 5_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    // Most recently returned first, so busy periods reuse the same few connections
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    // One permit per connection that may still be handed out
+    private final Semaphore available;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong closedCount = new AtomicLong();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    private final AtomicLong acquireNanos = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        available = new Semaphore(settings.maxSize(), true);
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection. Closing it returns it to the pool.
+     *
+     * @throws DataAccessException if no connection frees up within the acquisition
+     *                             timeout, or a new one cannot be opened
+     */
+    public Connection getConnection() throws DataAccessException {
+        long start = System.nanoTime();
+        if (closed) {
+            throw new DataAccessException("Connection pool is closed");
+        }
+        try {
+            if (!available.tryAcquire(settings.acquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new DataAccessException("Timed out after " + settings.acquireTimeoutMillis()
+                        + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for a database connection");
+        }
+
+        try {
+            PooledConnection connection = takeIdle();
+            if (connection == null) {
+                connection = open();
+            }
+            connection.borrowedAt = System.currentTimeMillis();
+            connection.borrowTrace = settings.leakThresholdMillis() > 0 ? new Exception("Connection borrowed here") : null;
+            connection.leakReported = false;
+            borrowed.add(connection);
+            acquired.incrementAndGet();
+            acquireNanos.addAndGet(System.nanoTime() - start);
+            return connection.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            available.release();
+            throw new DataAccessException("Unable to open a database connection: " + e.getMessage());
+        }
+    }
+
+    public Stats getStats() {
+        int idleCount = idle.size();
+        int active = borrowed.size();
+        long acquireCount = acquired.get();
+        return new Stats(idleCount + active, idleCount, active, available.getQueueLength(), created.get(),
+                closedCount.get(), acquireCount, timeouts.get(), leaks.get(),
+                acquireCount == 0 ? 0 : acquireNanos.get() / acquireCount / 1_000);
+    }
+
+    /**
+     * Closes idle connections and stops handing out new ones. Borrowed connections are
+     * closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+
+    // Returns a valid idle connection, discarding any that fail validation
+    private PooledConnection takeIdle() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            long idleMillis = System.currentTimeMillis() - connection.returnedAt;
+            if (idleMillis < settings.validationIntervalMillis() || isValid(connection)) {
+                return connection;
+            }
+            discard(connection);
+        }
+        return null;
+    }
+
+    private PooledConnection open() throws SQLException {
+        PooledConnection connection = new PooledConnection(factory.create());
+        created.incrementAndGet();
+        return connection;
+    }
+
+    private void release(PooledConnection connection) {
+        borrowed.remove(connection);
+        try {
+            if (closed || connection.physical.isClosed()) {
+                discard(connection);
+                return;
+            }
+            if (!connection.physical.getAutoCommit()) {
+                connection.physical.rollback();
+                connection.physical.setAutoCommit(true);
+            }
+            connection.returnedAt = System.currentTimeMillis();
+            idle.offerFirst(connection);
+        } catch (SQLException e) {
+            discard(connection);
+        } finally {
+            available.release();
+        }
+    }
+
+    private void discard(PooledConnection connection) {
+        try {
+            connection.physical.close();
+        } catch (SQLException e) {
+            // Already broken; nothing more to do
+        }
+        closedCount.incrementAndGet();
+    }
+
+    private static boolean isValid(PooledConnection connection) {
+        try {
+            return connection.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Oldest idle connections are at the back of the deque
+        Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && idle.size() + borrowed.size() > settings.minSize()) {
+            PooledConnection connection = oldestFirst.next();
+            if (now - connection.returnedAt > settings.idleTimeoutMillis() && idle.remove(connection)) {
+                discard(connection);
+            }
+        }
+
+        while (!closed && idle.size() + borrowed.size() < settings.minSize() && available.tryAcquire()) {
+            try {
+                PooledConnection connection = open();
+                connection.returnedAt = now;
+                idle.offerLast(connection);
+            } catch (SQLException e) {
+                break;
+            } finally {
+                available.release();
+            }
+        }
+
+        if (settings.leakThresholdMillis() > 0) {
+            for (PooledConnection connection : borrowed) {
+                if (!connection.leakReported && now - connection.borrowedAt > settings.leakThresholdMillis()) {
+                    connection.leakReported = true;
+                    leaks.incrementAndGet();
+                    LOG.warn("Possible connection leak: connection held for {} ms",
+                            now - connection.borrowedAt, connection.borrowTrace);
+                }
+            }
+        }
+    }
+
+    // A physical connection and its pool bookkeeping
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long borrowedAt;
+        private volatile long returnedAt;
+        private volatile Exception borrowTrace;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        // Each borrow gets its own handle, so a stale reference cannot reach the next borrower
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+    }
+
+    private final class Handle implements InvocationHandler {
+        private PooledConnection connection;
+
+        private Handle(PooledConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (connection != null) {
+                        PooledConnection returned = connection;
+                        connection = null;
+                        release(returned);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return connection == null || connection.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + (connection == null ? "[closed]" : connection.physical.toString());
+                }
+                default -> {
+                    if (connection == null) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    try {
+                        return method.invoke(connection.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
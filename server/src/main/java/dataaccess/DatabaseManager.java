@@ -8,6 +8,8 @@ public class DatabaseManager {
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final ConnectionPool.Settings POOL_SETTINGS;
+    private static volatile ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -25,6 +27,15 @@ public class DatabaseManager {
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
                 CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+
+                var defaults = ConnectionPool.Settings.DEFAULT;
+                POOL_SETTINGS = new ConnectionPool.Settings(
+                        Integer.parseInt(props.getProperty("db.pool.minSize", String.valueOf(defaults.minSize()))),
+                        Integer.parseInt(props.getProperty("db.pool.maxSize", String.valueOf(defaults.maxSize()))),
+                        Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", String.valueOf(defaults.idleTimeoutMillis()))),
+                        Long.parseLong(props.getProperty("db.pool.acquireTimeoutMillis", String.valueOf(defaults.acquireTimeoutMillis()))),
+                        Long.parseLong(props.getProperty("db.pool.validationIntervalMillis", String.valueOf(defaults.validationIntervalMillis()))),
+                        Long.parseLong(props.getProperty("db.pool.leakThresholdMillis", String.valueOf(defaults.leakThresholdMillis()))));
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -37,8 +48,9 @@ public class DatabaseManager {
     static void createDatabase() throws DataAccessException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
+            // Not pooled: pooled connections are bound to the database this creates
+            try (var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+                 var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -47,9 +59,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
+     * Borrow a connection from the pool, with the catalog set based upon the
      * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * be short-lived, and you must close the connection when you are done with it
+     * so it goes back to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -59,12 +72,47 @@ public class DatabaseManager {
      * </code>
      */
     static Connection getConnection() throws DataAccessException {
+        return pool().getConnection();
+    }
+
+    /**
+     * @return the connection pool's current counters
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return pool().getStats();
+    }
+
+    /**
+     * Closes the pool's idle connections. A later {@link #getConnection()} starts a new pool.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private static ConnectionPool pool() {
+        var current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DatabaseManager.class) {
+            if (pool == null) {
+                pool = new ConnectionPool(DatabaseManager::openConnection, POOL_SETTINGS);
+            }
+            return pool;
+        }
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
         try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
             conn.setCatalog(DATABASE_NAME);
-            return conn;
         } catch (SQLException e) {
-            throw new DataAccessException(e.getMessage());
+            conn.close();
+            throw e;
         }
+        return conn;
     }
 }
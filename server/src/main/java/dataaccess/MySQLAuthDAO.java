@@ -11,6 +11,8 @@ import java.util.Map;
 
 public class MySQLAuthDAO extends GenericDAO {
     private static String tableName = "auth";
+    // Shared by every instance so a logout through one is seen by all
+    private static final TokenCache tokenCache = new TokenCache();
 
     public MySQLAuthDAO() throws DataAccessException {
         configureDatabase(createStatements);
@@ -24,15 +26,42 @@ public class MySQLAuthDAO extends GenericDAO {
     };
 
     public boolean validateToken(String token) throws DataAccessException {
-        String query = "SELECT 1 FROM " + tableName + " WHERE authToken = ?";
-        try (var conn = DatabaseManager.getConnection();
-             var preparedStatement = conn.prepareStatement(query)) {
-            preparedStatement.setString(1, token);
-            try (var resultSet = preparedStatement.executeQuery()) {
-                return resultSet.next();
+        return getAuthData(token) != null;
+    }
+
+    public static TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    /**
+     * Looks up a single token, from the token cache if possible and otherwise with one
+     * indexed query
+     *
+     * @return the token's auth data, or null if the token is unknown
+     */
+    public AuthData getAuthData(String token) throws DataAccessException {
+        if (token == null) {
+            return null;
+        }
+        String cached = tokenCache.get(token);
+        if (cached != null) {
+            return new AuthData(token, cached);
+        }
+        long generation = tokenCache.generation();
+        String query = "SELECT username FROM " + tableName + " WHERE authToken = ?";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement statement = conn.prepareStatement(query)) {
+            statement.setString(1, token);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    String username = resultSet.getString("username");
+                    tokenCache.putIfCurrent(token, username, generation);
+                    return new AuthData(token, username);
+                }
+                return null;
             }
         } catch (SQLException ex) {
-            throw new DataAccessException("Unable to validate token: " + ex.getMessage());
+            throw new DataAccessException("Unable to get auth data: " + ex.getMessage());
         }
     }
 
@@ -43,6 +72,7 @@ public class MySQLAuthDAO extends GenericDAO {
             statement.setString(1, token);
             statement.setString(2, authData.username());
             statement.executeUpdate();
+            tokenCache.put(token, authData.username());
         } catch (SQLException ex) {
             throw new DataAccessException("Unable to add auth token: " + ex.getMessage());
         }
@@ -85,24 +115,25 @@ public class MySQLAuthDAO extends GenericDAO {
             }
         } catch (SQLException ex) {
             throw new DataAccessException("Unable to remove auth token: " + ex.getMessage());
+        } finally {
+            // After the delete, so a lookup that read the row before it cannot cache it again
+            tokenCache.invalidate(token);
         }
         return null;
     }
 
-    public String getUsername(String token) throws DataAccessException {
-        String query = "SELECT username FROM " + tableName + " WHERE authToken = ?";
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement statement = conn.prepareStatement(query)){
-            statement.setString(1, token);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return resultSet.getString("username");
-                } else {
-                    return null;
-                }
-            }
-        } catch (SQLException ex) {
-            throw new DataAccessException("Unable to get auth token: " + ex.getMessage());
+    @Override
+    public void clear(String tableName) throws DataAccessException {
+        try {
+            super.clear(tableName);
+        } finally {
+            tokenCache.invalidateAll();
         }
     }
+
+    public String getUsername(String token) throws DataAccessException {
+        AuthData authData = getAuthData(token);
+        return authData == null ? null : authData.username();
+    }
+
 }
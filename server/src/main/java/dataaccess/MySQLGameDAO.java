@@ -2,21 +2,60 @@ package dataaccess;
 
 import com.google.gson.Gson;
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.PackedMove;
 import model.GameData;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MySQLGameDAO extends GenericDAO {
+    /**
+     * How game updates are written
+     */
+    public enum PersistenceMode {
+        /**
+         * Every update rewrites the game's row, including the serialized game
+         */
+        SNAPSHOT,
+        /**
+         * Each new move is a row in the move table, and the serialized game is only
+         * rewritten every {@link #SNAPSHOT_INTERVAL} plies. Loading a game replays the
+         * moves made since its snapshot.
+         */
+        MOVE_LOG
+    }
+
+    public static final int SNAPSHOT_INTERVAL = 40;
+
     private static String tableName = "game";
+    private static String moveTableName = "game_move";
     private Gson gson = new Gson();
+    private final PersistenceMode mode;
+
+    // In MOVE_LOG mode, what the rows of each game loaded or written by this DAO hold
+    private record Logged(int plies, int snapshotPly, String whiteUsername, String blackUsername, String gameName) {
+    }
+
+    private final Map<Long, Logged> logged = new ConcurrentHashMap<>();
 
     public MySQLGameDAO() throws DataAccessException {
+        this(PersistenceMode.SNAPSHOT);
+    }
+
+    public MySQLGameDAO(PersistenceMode mode) throws DataAccessException {
+        this.mode = mode;
         configureDatabase(createStatements);
+        addSnapshotPlyColumn();
     }
 
     private final String[] createStatements = {
@@ -25,10 +64,40 @@ public class MySQLGameDAO extends GenericDAO {
                     "  `whiteUsername` VARCHAR(100) NULL," +
                     "  `blackUsername` VARCHAR(100) NULL," +
                     "  `gameName` VARCHAR(100) NULL," +
-                    "  `game` TEXT NULL" +
-                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci"
+                    "  `game` TEXT NULL," +
+                    // Ply count of the serialized game; in MOVE_LOG mode, where its replay starts
+                    "  `snapshotPly` INT NOT NULL DEFAULT 0" +
+                    ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci",
+            // Written in MOVE_LOG mode; move is PackedMove.fromChessMove, which fits in 15 bits
+            "CREATE TABLE IF NOT EXISTS " + moveTableName + " (" +
+                    "  `gameID` INT NOT NULL," +
+                    "  `ply` INT NOT NULL," +
+                    "  `move` SMALLINT NOT NULL," +
+                    "  PRIMARY KEY (`gameID`, `ply`)" +
+                    ") ENGINE=InnoDB"
     };
 
+    // Game tables created before the move log lack the snapshotPly column
+    private void addSnapshotPlyColumn() throws DataAccessException {
+        String query = "SELECT COUNT(*) FROM information_schema.COLUMNS" +
+                " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = 'snapshotPly'";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement statement = conn.prepareStatement(query)) {
+            statement.setString(1, tableName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next() && resultSet.getInt(1) > 0) {
+                    return;
+                }
+            }
+            try (PreparedStatement alter = conn.prepareStatement(
+                    "ALTER TABLE " + tableName + " ADD COLUMN `snapshotPly` INT NOT NULL DEFAULT 0")) {
+                alter.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Unable to configure database: " + ex.getMessage());
+        }
+    }
+
     public GameData getGame(long gameID) throws DataAccessException {
         String query = "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM " + tableName + " WHERE gameID = ?";
         try (Connection conn = DatabaseManager.getConnection();
@@ -44,7 +113,11 @@ public class MySQLGameDAO extends GenericDAO {
                     String gameJson = resultSet.getString("game");
                     // Deserialize gson to a ChessGame class
                     ChessGame game = gson.fromJson(gameJson, ChessGame.class);
-                    return new GameData(id, whiteUsername, blackUsername, gameName, game);
+                    GameData gameData = new GameData(id, whiteUsername, blackUsername, gameName, game);
+                    if (mode == PersistenceMode.MOVE_LOG) {
+                        gameData = replayMoves(conn, gameData);
+                    }
+                    return gameData;
                 } else {
                     return null;
                 }
@@ -55,6 +128,10 @@ public class MySQLGameDAO extends GenericDAO {
     }
 
     public void updateGame(long id, GameData game) throws DataAccessException {
+        if (mode == PersistenceMode.MOVE_LOG) {
+            updateGames(List.of(new GameData((int) id, game.whiteUsername(), game.blackUsername(), game.gameName(), game.game())));
+            return;
+        }
         String query = "UPDATE " + tableName + " SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?";
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement statement = conn.prepareStatement(query)) {
@@ -70,6 +147,32 @@ public class MySQLGameDAO extends GenericDAO {
         }
     }
 
+    /**
+     * Updates several games in one batch and one transaction
+     */
+    public void updateGames(Collection<GameData> games) throws DataAccessException {
+        if (mode == PersistenceMode.MOVE_LOG) {
+            appendMoves(games);
+            return;
+        }
+        String query = "UPDATE " + tableName + " SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement statement = conn.prepareStatement(query)) {
+            conn.setAutoCommit(false);
+            for (GameData game : games) {
+                statement.setString(1, game.whiteUsername());
+                statement.setString(2, game.blackUsername());
+                statement.setString(3, game.gameName());
+                statement.setString(4, gson.toJson(game.game()));
+                statement.setLong(5, game.gameID());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            conn.commit();
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error updating games: " + ex.getMessage());
+        }
+    }
 
     public void addGame(GameData game) throws DataAccessException {
         String query = "INSERT INTO " + tableName + " (gameID, whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?, ?)";
@@ -83,6 +186,9 @@ public class MySQLGameDAO extends GenericDAO {
             String gameJson = gson.toJson(madeGame);
             statement.setString(5, gameJson);
             statement.executeUpdate();
+            if (mode == PersistenceMode.MOVE_LOG) {
+                logged.put((long) game.gameID(), new Logged(0, 0, game.whiteUsername(), game.blackUsername(), game.gameName()));
+            }
         } catch (SQLException ex) {
             throw new DataAccessException("Error adding game: " + ex.getMessage());
         }
@@ -106,11 +212,162 @@ public class MySQLGameDAO extends GenericDAO {
                 GameData gameData = new GameData(id, whiteUsername, blackUsername, gameName, game);
                 games.put(id, gameData);
             }
+            if (mode == PersistenceMode.MOVE_LOG) {
+                replayAllMoves(conn, games);
+            }
         } catch (SQLException ex) {
             throw new DataAccessException("Unable to get games: " + ex.getMessage());
         }
         return games;
     }
 
+    /**
+     * Clearing the game table also clears the move table
+     */
+    @Override
+    public void clear(String tableName) throws DataAccessException {
+        super.clear(tableName);
+        if (tableName.equals(MySQLGameDAO.tableName)) {
+            super.clear(moveTableName);
+            logged.clear();
+        }
+    }
+
+    // Writes each game's new moves, plus its row when the players changed or a snapshot is due
+    private void appendMoves(Collection<GameData> games) throws DataAccessException {
+        String insertMove = "INSERT INTO " + moveTableName + " (gameID, ply, move) VALUES (?, ?, ?)" +
+                " ON DUPLICATE KEY UPDATE move = VALUES(move)";
+        String deleteMoves = "DELETE FROM " + moveTableName + " WHERE gameID = ? AND ply >= ?";
+        String updatePlayers = "UPDATE " + tableName + " SET whiteUsername = ?, blackUsername = ?, gameName = ? WHERE gameID = ?";
+        String updateSnapshot = "UPDATE " + tableName +
+                " SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ?, snapshotPly = ? WHERE gameID = ?";
+        Map<Long, Logged> written = new HashMap<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement moveStatement = conn.prepareStatement(insertMove);
+             PreparedStatement deleteStatement = conn.prepareStatement(deleteMoves);
+             PreparedStatement playerStatement = conn.prepareStatement(updatePlayers);
+             PreparedStatement snapshotStatement = conn.prepareStatement(updateSnapshot)) {
+            conn.setAutoCommit(false);
+            for (GameData game : games) {
+                long id = game.gameID();
+                ChessGame chessGame = game.game();
+                int plies = chessGame == null ? 0 : chessGame.getPlyCount();
+                Logged previous = logged.get(id);
+                // Unknown or rewound history is written out in full
+                boolean rewrite = previous == null || plies < previous.plies();
+                boolean snapshot = rewrite || plies - previous.snapshotPly() >= SNAPSHOT_INTERVAL;
+
+                if (rewrite) {
+                    // Rows past the end may be left from before a rewind, or from a write this DAO
+                    // does not know about; replay would play them on top of the new snapshot
+                    deleteStatement.setLong(1, id);
+                    deleteStatement.setInt(2, plies);
+                    deleteStatement.addBatch();
+                }
+                int firstNew = rewrite ? 0 : previous.plies();
+                if (firstNew < plies) {
+                    List<ChessMove> history = chessGame.getMoveHistory();
+                    for (int ply = firstNew; ply < plies; ply++) {
+                        moveStatement.setLong(1, id);
+                        moveStatement.setInt(2, ply);
+                        moveStatement.setInt(3, PackedMove.fromChessMove(history.get(ply)));
+                        moveStatement.addBatch();
+                    }
+                }
+                if (snapshot) {
+                    snapshotStatement.setString(1, game.whiteUsername());
+                    snapshotStatement.setString(2, game.blackUsername());
+                    snapshotStatement.setString(3, game.gameName());
+                    snapshotStatement.setString(4, gson.toJson(chessGame));
+                    snapshotStatement.setInt(5, plies);
+                    snapshotStatement.setLong(6, id);
+                    snapshotStatement.addBatch();
+                } else if (!Objects.equals(previous.whiteUsername(), game.whiteUsername())
+                        || !Objects.equals(previous.blackUsername(), game.blackUsername())
+                        || !Objects.equals(previous.gameName(), game.gameName())) {
+                    playerStatement.setString(1, game.whiteUsername());
+                    playerStatement.setString(2, game.blackUsername());
+                    playerStatement.setString(3, game.gameName());
+                    playerStatement.setLong(4, id);
+                    playerStatement.addBatch();
+                }
+                written.put(id, new Logged(plies, snapshot ? plies : previous.snapshotPly(),
+                        game.whiteUsername(), game.blackUsername(), game.gameName()));
+            }
+            deleteStatement.executeBatch();
+            moveStatement.executeBatch();
+            playerStatement.executeBatch();
+            snapshotStatement.executeBatch();
+            conn.commit();
+            logged.putAll(written);
+        } catch (SQLException ex) {
+            // What is in the database is no longer known; the next write rewrites these games
+            for (GameData game : games) {
+                logged.remove((long) game.gameID());
+            }
+            throw new DataAccessException("Error updating games: " + ex.getMessage());
+        }
+    }
 
+    // Plays the moves logged since the game's snapshot
+    private GameData replayMoves(Connection conn, GameData gameData) throws SQLException, DataAccessException {
+        ChessGame game = gameData.game() == null ? new ChessGame() : gameData.game();
+        int snapshotPly = game.getPlyCount();
+        String query = "SELECT ply, move FROM " + moveTableName + " WHERE gameID = ? AND ply >= ? ORDER BY ply";
+        try (PreparedStatement statement = conn.prepareStatement(query)) {
+            statement.setLong(1, gameData.gameID());
+            statement.setInt(2, snapshotPly);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    playLogged(gameData.gameID(), game, resultSet.getInt("ply"), resultSet.getInt("move"));
+                }
+            }
+        }
+        if (gameData.game() == null && game.getPlyCount() == 0) {
+            game = null;
+        }
+        logged.put((long) gameData.gameID(), new Logged(game == null ? 0 : game.getPlyCount(), snapshotPly,
+                gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName()));
+        return new GameData(gameData.gameID(), gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), game);
+    }
+
+    private void replayAllMoves(Connection conn, Map<Integer, GameData> games) throws SQLException, DataAccessException {
+        // Only the moves after each game's snapshot; the log itself is never pruned
+        String query = "SELECT m.gameID, m.ply, m.move FROM " + moveTableName + " m" +
+                " JOIN " + tableName + " g ON g.gameID = m.gameID" +
+                " WHERE m.ply >= g.snapshotPly ORDER BY m.gameID, m.ply";
+        try (PreparedStatement statement = conn.prepareStatement(query);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                GameData gameData = games.get(resultSet.getInt("gameID"));
+                if (gameData == null) {
+                    continue;
+                }
+                if (gameData.game() == null) {
+                    gameData = new GameData(gameData.gameID(), gameData.whiteUsername(), gameData.blackUsername(),
+                            gameData.gameName(), new ChessGame());
+                    games.put(gameData.gameID(), gameData);
+                }
+                int ply = resultSet.getInt("ply");
+                // Moves before the snapshot are already part of it
+                if (ply >= gameData.game().getPlyCount()) {
+                    playLogged(gameData.gameID(), gameData.game(), ply, resultSet.getInt("move"));
+                }
+            }
+        }
+    }
+
+    private static void playLogged(int gameID, ChessGame game, int ply, int move) throws DataAccessException {
+        if (ply != game.getPlyCount()) {
+            throw new DataAccessException("Move log of game " + gameID + " is missing ply " + game.getPlyCount());
+        }
+        if (!PackedMove.isUnflagged(move)) {
+            throw new DataAccessException("Move log of game " + gameID + " has a corrupt move at ply " + ply);
+        }
+        try {
+            game.makeMove(PackedMove.toChessMove(move));
+        } catch (InvalidMoveException e) {
+            throw new DataAccessException("Move log of game " + gameID + " has an illegal move at ply " + ply);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package dataaccess;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * A bounded, concurrent map from auth token to username whose entries expire after a
+ * fixed time. When the cache is full, expired entries are dropped first and then
+ * arbitrary ones, so the size bound holds without tracking recency on every read.
+ * <p>
+ * Invalidation is immediate for this process. To keep a lookup that raced with a logout
+ * from putting the token back, loaders read {@link #generation()} before querying the
+ * database and store the result with {@link #putIfCurrent}, which drops it again if
+ * anything was invalidated in between. Other processes sharing the database see a
+ * logout within the time-to-live.
+ */
+public class TokenCache {
+    public static final long DEFAULT_TTL_MILLIS = 5 * 60_000;
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    private record Entry(String username, long expiresAt) {
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier clock;
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public TokenCache() {
+        this(DEFAULT_TTL_MILLIS, DEFAULT_MAX_SIZE);
+    }
+
+    public TokenCache(long ttlMillis, int maxSize) {
+        this(ttlMillis, maxSize, System::nanoTime);
+    }
+
+    TokenCache(long ttlMillis, int maxSize, LongSupplier clock) {
+        if (ttlMillis <= 0 || maxSize < 1) {
+            throw new IllegalArgumentException("Token cache needs a positive time-to-live and size");
+        }
+        this.ttlNanos = ttlMillis * 1_000_000;
+        this.maxSize = maxSize;
+        this.clock = clock;
+    }
+
+    /**
+     * @return the cached username, or null if the token is not cached or has expired
+     */
+    public String get(String token) {
+        Entry entry = entries.get(token);
+        if (entry != null && entry.expiresAt() - clock.getAsLong() > 0) {
+            hits.incrementAndGet();
+            return entry.username();
+        }
+        if (entry != null) {
+            entries.remove(token, entry);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches a token known to be valid, such as one just issued
+     */
+    public void put(String token, String username) {
+        makeRoom();
+        entries.put(token, new Entry(username, clock.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * Caches a token read from the database, unless a token was invalidated since
+     * {@code generation} was read
+     */
+    public void putIfCurrent(String token, String username, long generation) {
+        if (this.generation.get() != generation) {
+            return;
+        }
+        makeRoom();
+        Entry entry = new Entry(username, clock.getAsLong() + ttlNanos);
+        entries.put(token, entry);
+        // An invalidation that raced with the put may have run before it; undo the put
+        if (this.generation.get() != generation) {
+            entries.remove(token, entry);
+        }
+    }
+
+    /**
+     * @return a stamp to pass to {@link #putIfCurrent}, read before querying the database
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void invalidate(String token) {
+        generation.incrementAndGet();
+        entries.remove(token);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    // Evicts before a put that would overflow the cache, leaving some room to spare so
+    // eviction does not run on every put
+    private void makeRoom() {
+        if (entries.size() < maxSize) {
+            return;
+        }
+        long now = clock.getAsLong();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        entries.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps games that are in play in memory and writes changes to MySQL in the background.
+ * Reads of a resident game and updates to it never touch the database; a background
+ * task writes every game changed since the last flush in one batch, so the database is
+ * never more than the maximum staleness behind. {@link #flush()} writes everything
+ * immediately; {@link #shutdown()} stops the background task and writes what is left,
+ * and is called when the server stops. {@link #start()} starts the task again for the
+ * next server. New games are inserted right away.
+ * <p>
+ * Callers get their own copy of a game from {@link #getGame} and the DAO keeps its own
+ * copy of whatever is passed to {@link #updateGame}, so the games a caller changes are
+ * never the ones being written out. Games that are neither read nor changed for the
+ * residency time are dropped from memory once they have been written.
+ */
+public class WriteBehindGameDAO extends MySQLGameDAO {
+    public static final long DEFAULT_MAX_STALENESS_MILLIS = 1_000;
+    public static final long DEFAULT_RESIDENCY_MILLIS = 10 * 60_000;
+
+    // A game held in memory; replaced as a whole on every update
+    private static final class Resident {
+        private final GameData game;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private Resident(GameData game) {
+            this.game = game;
+        }
+    }
+
+    private final Map<Long, Resident> resident = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final long maxStalenessMillis;
+    private final long residencyMillis;
+    // Guards starting and stopping the flusher; not the DAO's own lock, which flush() holds
+    private final Object lifecycle = new Object();
+    private ScheduledExecutorService flusher;
+    private volatile boolean shutDown;
+
+    public WriteBehindGameDAO() throws DataAccessException {
+        this(PersistenceMode.SNAPSHOT);
+    }
+
+    public WriteBehindGameDAO(PersistenceMode mode) throws DataAccessException {
+        this(DEFAULT_MAX_STALENESS_MILLIS, DEFAULT_RESIDENCY_MILLIS, mode);
+    }
+
+    /**
+     * @param maxStalenessMillis longest a change may wait before it is written to the database
+     * @param residencyMillis how long an unused game stays in memory
+     */
+    public WriteBehindGameDAO(long maxStalenessMillis, long residencyMillis) throws DataAccessException {
+        this(maxStalenessMillis, residencyMillis, PersistenceMode.SNAPSHOT);
+    }
+
+    /**
+     * @param maxStalenessMillis longest a change may wait before it is written to the database
+     * @param residencyMillis how long an unused game stays in memory
+     * @param mode how flushed games are written
+     */
+    public WriteBehindGameDAO(long maxStalenessMillis, long residencyMillis, PersistenceMode mode) throws DataAccessException {
+        super(mode);
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.residencyMillis = residencyMillis;
+        start();
+    }
+
+    /**
+     * Starts writing changes in the background again after {@link #shutdown()}; does
+     * nothing if the background task is already running
+     */
+    public void start() {
+        synchronized (lifecycle) {
+            if (flusher != null) {
+                return;
+            }
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "game-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushInBackground, maxStalenessMillis, maxStalenessMillis,
+                    TimeUnit.MILLISECONDS);
+            shutDown = false;
+        }
+    }
+
+    @Override
+    public GameData getGame(long gameID) throws DataAccessException {
+        Resident cached = resident.get(gameID);
+        if (cached == null) {
+            GameData loaded = super.getGame(gameID);
+            if (loaded == null) {
+                return null;
+            }
+            // An update that got in first is newer than what was just read
+            Resident fresh = new Resident(loaded);
+            cached = resident.putIfAbsent(gameID, fresh);
+            if (cached == null) {
+                cached = fresh;
+            }
+        }
+        cached.lastUsed = System.currentTimeMillis();
+        return copy(cached.game);
+    }
+
+    @Override
+    public void updateGame(long id, GameData game) throws DataAccessException {
+        resident.put(id, new Resident(copy(game)));
+        dirty.add(id);
+        if (shutDown) {
+            // The background task is gone, and shutdown's last flush may already have run
+            flush();
+        }
+    }
+
+    @Override
+    public void addGame(GameData game) throws DataAccessException {
+        super.addGame(game);
+        resident.put((long) game.gameID(), new Resident(new GameData(game.gameID(), game.whiteUsername(),
+                game.blackUsername(), game.gameName(), new ChessGame())));
+    }
+
+    @Override
+    public Map<Integer, GameData> getGames() throws DataAccessException {
+        Map<Integer, GameData> games = super.getGames();
+        // Rows of games changed since the last flush are out of date
+        for (Map.Entry<Long, Resident> entry : resident.entrySet()) {
+            int id = entry.getKey().intValue();
+            if (games.containsKey(id)) {
+                games.put(id, copy(entry.getValue().game));
+            }
+        }
+        return games;
+    }
+
+    @Override
+    public void clear(String tableName) throws DataAccessException {
+        dirty.clear();
+        resident.clear();
+        super.clear(tableName);
+    }
+
+    /**
+     * Writes every changed game to the database now
+     */
+    public synchronized void flush() throws DataAccessException {
+        List<GameData> batch = new ArrayList<>(dirty.size());
+        for (Long id : dirty) {
+            // Unmark before reading, so an update after the read marks the game again
+            dirty.remove(id);
+            Resident cached = resident.get(id);
+            if (cached != null) {
+                batch.add(cached.game);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            updateGames(batch);
+        } catch (DataAccessException e) {
+            for (GameData game : batch) {
+                dirty.add((long) game.gameID());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the background task, waiting for a flush in progress, then writes every
+     * changed game. Until {@link #start()} is called, later updates are written straight
+     * to the database.
+     */
+    public void shutdown() throws DataAccessException {
+        synchronized (lifecycle) {
+            shutDown = true;
+            if (flusher != null) {
+                flusher.shutdown();
+                try {
+                    if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+                        flusher.shutdownNow();
+                    }
+                } catch (InterruptedException e) {
+                    flusher.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+                flusher = null;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of games held in memory
+     */
+    public int getResidentCount() {
+        return resident.size();
+    }
+
+    /**
+     * @return the number of games changed since the last flush
+     */
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+        } catch (DataAccessException e) {
+            // Still dirty; the next run retries
+            e.printStackTrace();
+        }
+        long cutoff = System.currentTimeMillis() - residencyMillis;
+        for (Map.Entry<Long, Resident> entry : resident.entrySet()) {
+            Resident cached = entry.getValue();
+            if (cached.lastUsed < cutoff && !dirty.contains(entry.getKey())) {
+                // Only if it was not replaced in the meantime
+                resident.remove(entry.getKey(), cached);
+            }
+        }
+    }
+
+    private static GameData copy(GameData game) {
+        ChessGame chessGame = game.game() == null ? null : new ChessGame(game.game());
+        return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), chessGame);
+    }
+}
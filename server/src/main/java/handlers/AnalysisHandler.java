@@ -0,0 +1,62 @@
+package handlers;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import model.AnalysisResult;
+import service.AnalysisService;
+import spark.Request;
+import spark.Response;
+
+import java.util.Map;
+
+public class AnalysisHandler {
+    private Gson gson = new Gson();
+    private AnalysisService analysisService;
+
+    public AnalysisHandler(AnalysisService analysisService) {
+        this.analysisService = analysisService;
+    }
+
+    public Object analyze(Request request, Response response) {
+        try {
+            String authToken = request.headers("authorization");
+            long id;
+            long timeMillis = 0;
+            try {
+                id = Long.parseLong(request.params(":id"));
+                JsonObject body = request.body() == null || request.body().isBlank()
+                        ? null : gson.fromJson(request.body(), JsonObject.class);
+                if (body != null && body.has("timeMillis")) {
+                    timeMillis = body.get("timeMillis").getAsLong();
+                }
+            } catch (RuntimeException e) {
+                response.status(400);
+                return gson.toJson(Map.of("message", "Error: bad request"));
+            }
+
+            if (authToken == null || authToken.isEmpty()) {
+                response.status(401);
+                return gson.toJson(Map.of("message", "Error: unauthorized"));
+            }
+
+            AnalysisResult result = analysisService.analyze(id, authToken, timeMillis);
+            response.status(200);
+            return gson.toJson(result);
+        } catch (Exception e) {
+            String errorMessage = e.getMessage();
+            if (errorMessage.equals("Unauthorized")) {
+                response.status(401);
+                return gson.toJson(Map.of("message", "Error: unauthorized"));
+            } else if (errorMessage.equals("Game not found")) {
+                response.status(400);
+                return gson.toJson(Map.of("message", "Error: bad request"));
+            } else if (errorMessage.equals("Analysis queue is full") || errorMessage.equals("Analysis timed out")) {
+                response.status(503);
+                return gson.toJson(Map.of("message", "Error: " + errorMessage.toLowerCase()));
+            } else {
+                response.status(500);
+                return gson.toJson(Map.of("message", errorMessage));
+            }
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package server;
 
 import dataaccess.DataAccessException;
+import dataaccess.DatabaseManager;
 import dataaccess.MySQLAuthDAO;
 import dataaccess.MySQLGameDAO;
 import dataaccess.MySQLUserDAO;
+import dataaccess.WriteBehindGameDAO;
 import handlers.*;
+import service.AnalysisService;
+import service.GenericService;
 import spark.*;
 
 public class Server {
+    private AnalysisService analysisService;
 
     public int run(int desiredPort) {
         Spark.port(desiredPort);
 
         Spark.staticFiles.location("web");
 
-        WebSocketServer webSocketServer = new WebSocketServer();
+        // The game DAO is shared by every server in this process; a previous stop() shut it down
+        if (GenericService.getGameDAO() instanceof WriteBehindGameDAO writeBehind) {
+            writeBehind.start();
+        }
+        analysisService = new AnalysisService();
+        WebSocketServer webSocketServer = new WebSocketServer(analysisService);
+        AnalysisHandler analysisHandler = new AnalysisHandler(analysisService);
 
         // Register your endpoints and handle exceptions here.
         Spark.webSocket("/ws", webSocketServer);
@@ -25,6 +36,7 @@ public class Server {
         Spark.delete("/session", ((request, response) -> (new LogoutHandler()).logout(request, response)));
         Spark.delete("/db", ((request, response) -> (new ClearHandler()).clear(request, response)));
         Spark.put("/game", ((request, response) -> (new JoinGameHandler()).joinGame(request, response)));
+        Spark.post("/game/:id/analysis", ((request, response) -> analysisHandler.analyze(request, response)));
 
         Spark.awaitInitialization();
         return Spark.port();
@@ -33,5 +45,17 @@ public class Server {
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
+        if (analysisService != null) {
+            analysisService.shutdown();
+        }
+        // Write out buffered moves before the connection pool goes away
+        if (GenericService.getGameDAO() instanceof WriteBehindGameDAO writeBehind) {
+            try {
+                writeBehind.shutdown();
+            } catch (DataAccessException e) {
+                e.printStackTrace();
+            }
+        }
+        DatabaseManager.shutdown();
     }
 }
@@ -6,6 +6,7 @@ import model.GameData;
 import org.eclipse.jetty.websocket.api.annotations.*;
 import org.eclipse.jetty.websocket.api.*;
 import dataaccess.*;
+import service.AnalysisService;
 import service.GenericService;
 import websocket.commands.*;
 import websocket.messages.*;
@@ -23,16 +24,21 @@ public class WebSocketServer {
     private MySQLGameDAO gameDAO = GenericService.getGameDAO();
 
     private Map<Integer, Set<Session>> gameSessions = new HashMap<>();
+    private AnalysisService analysisService;
+
+    public WebSocketServer(AnalysisService analysisService) {
+        this.analysisService = analysisService;
+    }
 
     @OnWebSocketMessage
     public void onMessage(Session session, String msg) {
         try {
             UserGameCommand command = serializer.fromJson(msg, UserGameCommand.class);
             String authToken = command.getAuthString();
-            Map<String, AuthData> authData = authDAO.getAuth();
+            AuthData authData = authDAO.getAuthData(authToken);
 
-            if (authToken != null && authDAO.validateToken(authToken)) {
-                String username = authData.get(authToken).username();
+            if (authData != null) {
+                String username = authData.username();
                 UserGameCommand.CommandType type = command.getCommandType();
 
                 switch (type) {
@@ -52,6 +58,10 @@ public class WebSocketServer {
                         Resign resignCommand = serializer.fromJson(msg, Resign.class);
                         resign(session, username, resignCommand);
                     }
+                    case ANALYZE -> {
+                        Analyze analyzeCommand = serializer.fromJson(msg, Analyze.class);
+                        analyze(session, analyzeCommand);
+                    }
                 }
             } else {
                 sendMessage(session, new ErrorMessage("errorMessage"));
@@ -175,7 +185,8 @@ public class WebSocketServer {
             ChessGame.TeamColor currentTeam = game.getTeamTurn();
             ChessGame.TeamColor currentPlayerColor = getCurrentPlayer(username, gamedata);
 
-            if (game.isInCheckmate(ChessGame.TeamColor.WHITE) || game.isInCheckmate(ChessGame.TeamColor.BLACK)) {
+            // Only the team to move can be checkmated, so one status pass covers both teams
+            if (game.status().isGameOver()) {
                 sendMessage(session, new ErrorMessage("Game Over!"));
                 return;
             }
@@ -209,36 +220,63 @@ public class WebSocketServer {
             Notification moveNotification = new Notification(username + " made a move: " + move);
             sendMessageToOthers(session, gameID, moveNotification);
 
-            if (game.isInCheckmate(ChessGame.TeamColor.WHITE) || game.isInCheckmate(ChessGame.TeamColor.BLACK)) {
+            GameStatus status = game.status();
+            if (status.isCheckmate()) {
                 Notification endNotification = new Notification("The game is over");
                 sendMessage(session, endNotification);
                 return;
             }
 
-            if (game.isInCheck((game.getTeamTurn()))){
+            if (status.inCheck()){
                 Notification checkNotification = new Notification("Check");
                 sendMessage(session, checkNotification);
                 sendMessageToOthers(session, gameID, checkNotification);
             }
-            if (game.isInCheckmate((game.getTeamTurn()))){
-                Notification checkMateNotification = new Notification("Checkmate");
-                sendMessage(session, checkMateNotification);
-                sendMessageToOthers(session, gameID, checkMateNotification);
-            }
-            if (game.isInStalemate((game.getTeamTurn()))){
+            if (status.isStalemate()){
                 Notification stalemateNotification = new Notification("Stalemate");
                 sendMessage(session, stalemateNotification);
                 sendMessageToOthers(session, gameID, stalemateNotification);
             }
+            if (status.isDraw()) {
+                Notification drawNotification = new Notification("Draw by " + status.drawReason());
+                sendMessage(session, drawNotification);
+                sendMessageToOthers(session, gameID, drawNotification);
+            }
 
         } catch (Exception e) {
             sendMessage(session, new ErrorMessage("An error occurred while making the move."));
         }
     }
 
+    // Replies only to the asking session, once the (possibly shared) search finishes
+    private void analyze(Session session, Analyze command) {
+        int gameID = command.getGameID();
+        try {
+            GameData gamedata = gameDAO.getGame(gameID);
+            if (gamedata == null) {
+                sendMessage(session, new ErrorMessage("Game not found."));
+                return;
+            }
+            analysisService.analyze(gamedata.game(), command.getTimeMillis()).whenComplete((analysis, error) -> {
+                if (error != null) {
+                    sendMessage(session, new ErrorMessage("An error occurred while analyzing the game."));
+                } else {
+                    sendMessage(session, new Analysis(gameID, analysis));
+                }
+            });
+        } catch (Exception e) {
+            sendMessage(session, new ErrorMessage("Analysis unavailable: " + e.getMessage()));
+        }
+    }
+
+    // Analysis replies are sent from worker threads, and a session's blocking remote
+    // endpoint takes one send at a time, so sends to a session are serialized on it
     private void sendMessage(Session session, ServerMessage message) {
+        String json = serializer.toJson(message);
         try {
-            session.getRemote().sendString(serializer.toJson(message));
+            synchronized (session) {
+                session.getRemote().sendString(json);
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
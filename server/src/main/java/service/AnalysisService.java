@@ -0,0 +1,173 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.San;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import dataaccess.*;
+import model.AnalysisResult;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs engine analysis of stored games on a fixed pool of worker threads. Requests beyond
+ * the queue limit are refused rather than left to pile up, and every search has a time
+ * budget. Requests for a position that is already being analysed with at least the
+ * requested budget wait for that search instead of starting another, so any number of
+ * spectators of one game cost one search.
+ * The workers share one transposition table, so positions analysed before are cheap.
+ */
+public class AnalysisService extends GenericService {
+    public static final long DEFAULT_TIME_MILLIS = 1_000;
+    public static final long MAX_TIME_MILLIS = 10_000;
+    private static final long MIN_TIME_MILLIS = 10;
+    private static final int DEFAULT_QUEUE_LIMIT = 64;
+    private static final int TABLE_SIZE_MB = 64;
+
+    MySQLAuthDAO authDAO = GenericService.getAuthDAO();
+    MySQLGameDAO gameDAO = GenericService.getGameDAO();
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Search> searches;
+    // A search in progress or queued, and the time it was given
+    private record InFlight(long budget, CompletableFuture<AnalysisResult> analysis) {
+    }
+
+    // The longest search of each position in progress or queued, by Zobrist key
+    private final Map<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong searchCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    public AnalysisService() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), DEFAULT_QUEUE_LIMIT, TABLE_SIZE_MB);
+    }
+
+    public AnalysisService(int workers, int queueLimit, int tableSizeMb) {
+        TranspositionTable table = new TranspositionTable(tableSizeMb);
+        searches = ThreadLocal.withInitial(() -> new Search(table));
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueLimit), runnable -> {
+                    Thread thread = new Thread(runnable, "analysis-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Analyses a stored game's current position, waiting for the result
+     *
+     * @param timeMillis search time, or 0 for the default; clamped to {@link #MAX_TIME_MILLIS}
+     */
+    public AnalysisResult analyze(long gameID, String authToken, long timeMillis) throws Exception {
+        if (authDAO.getAuthData(authToken) == null) {
+            throw new Exception("Unauthorized");
+        }
+        GameData game = gameDAO.getGame(gameID);
+        if (game == null) {
+            throw new Exception("Game not found");
+        }
+
+        CompletableFuture<AnalysisResult> analysis = analyze(game.game(), timeMillis);
+        try {
+            // Queued requests wait for the searches ahead of them, so allow for more than one budget
+            return analysis.get(2 * MAX_TIME_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new Exception("Analysis timed out");
+        } catch (ExecutionException e) {
+            throw new Exception("Analysis failed: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Starts analysis of a position, or joins a search already running for it with at
+     * least the same time budget. The game is copied, so the caller may keep using it.
+     *
+     * @throws Exception if the queue is full
+     */
+    public CompletableFuture<AnalysisResult> analyze(ChessGame game, long timeMillis) throws Exception {
+        ChessGame position = game == null ? new ChessGame() : new ChessGame(game);
+        long budget = timeMillis <= 0 ? DEFAULT_TIME_MILLIS : Math.max(MIN_TIME_MILLIS, Math.min(timeMillis, MAX_TIME_MILLIS));
+        long key = position.zobristKey();
+
+        CompletableFuture<AnalysisResult> created = new CompletableFuture<>();
+        InFlight mine = new InFlight(budget, created);
+        // A shorter search of the position is left to finish, but later requests join this one
+        InFlight current = inFlight.compute(key, (k, existing) ->
+                existing != null && existing.budget() >= budget ? existing : mine);
+        if (current != mine) {
+            coalescedCount.incrementAndGet();
+            return current.analysis();
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    AnalysisResult result = search(position, budget);
+                    inFlight.remove(key, mine);
+                    created.complete(result);
+                } catch (Throwable e) {
+                    inFlight.remove(key, mine);
+                    created.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, mine);
+            created.completeExceptionally(e);
+            throw new Exception("Analysis queue is full");
+        }
+        return created;
+    }
+
+    /**
+     * @return the number of searches started
+     */
+    public long getSearchCount() {
+        return searchCount.get();
+    }
+
+    /**
+     * @return the number of requests answered by a search another request started
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Stops the workers; queued and running requests fail
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        for (InFlight search : inFlight.values()) {
+            search.analysis().completeExceptionally(new CancellationException("Analysis service stopped"));
+        }
+        inFlight.clear();
+    }
+
+    private AnalysisResult search(ChessGame game, long timeMillis) throws InvalidMoveException {
+        searchCount.incrementAndGet();
+        SearchResult result = searches.get().search(game, SearchLimits.time(timeMillis));
+
+        San san = new San();
+        ChessGame replay = new ChessGame(game);
+        List<String> line = new ArrayList<>(result.principalVariation().size());
+        for (ChessMove move : result.principalVariation()) {
+            line.add(san.format(replay, move));
+            replay.makeMove(move);
+        }
+
+        int sign = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? 1 : -1;
+        Integer mate = result.isMate() ? sign * result.mateIn() : null;
+        return new AnalysisResult(line.isEmpty() ? null : line.get(0), sign * result.score(), mate,
+                result.depth(), line, result.nodes(), result.timeMillis());
+    }
+}
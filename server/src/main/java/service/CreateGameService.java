@@ -11,7 +11,7 @@ public class CreateGameService extends GenericService {
 
     public GameData createGame(GameData game, String authToken) throws Exception {
         String gameName = game.gameName();
-        if (!authDAO.validateToken(authToken)){
+        if (authDAO.getAuthData(authToken) == null){
             throw new Exception("Unauthorized");
         }
         try {
@@ -21,7 +21,7 @@ public class GenericService {
         }
 
         try {
-            gameDAO = new MySQLGameDAO();
+            gameDAO = new WriteBehindGameDAO(MySQLGameDAO.PersistenceMode.MOVE_LOG);
         } catch (DataAccessException e) {
             e.printStackTrace();
         }
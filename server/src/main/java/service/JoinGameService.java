@@ -1,6 +1,7 @@
 package service;
 
 import dataaccess.*;
+import model.AuthData;
 import model.GameData;
 
 public class JoinGameService extends GenericService {
@@ -8,16 +9,13 @@ public class JoinGameService extends GenericService {
     MySQLGameDAO gameDAO = GenericService.getGameDAO();
 
     public GameData joinGame(long id, String playerColor, String authToken) throws Exception {
-        if (!authDAO.validateToken(authToken)) {
+        AuthData auth = authDAO.getAuthData(authToken);
+        if (auth == null) {
             throw new Exception("Unauthorized");
         }
-        String username = authDAO.getUsername(authToken);
+        String username = auth.username();
         GameData game = gameDAO.getGame(id);
 
-        if (username == null) {
-            throw new Exception("Unauthorized");
-        }
-
         if (game == null) {
             throw new Exception("Game not found");
         }
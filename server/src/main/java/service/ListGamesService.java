@@ -13,7 +13,7 @@ public class ListGamesService extends GenericService {
     MySQLGameDAO gameDAO = GenericService.getGameDAO();
 
     public Map<String, Object> listGames(String authToken) throws Exception {
-        if (!authDAO.validateToken(authToken)) {
+        if (authDAO.getAuthData(authToken) == null) {
             throw new Exception("Unauthorized");
         }
 
@@ -15,6 +15,6 @@ public class LogoutService extends GenericService{
     }
 
     public boolean isLoggedIn(String token) throws Exception{
-        return authDAO.getAuth().containsKey(token);
+        return authDAO.getAuthData(token) != null;
     }
 }
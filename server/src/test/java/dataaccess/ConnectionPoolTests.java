@@ -0,0 +1,133 @@
+package dataaccess;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTests {
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void reusesConnections() throws Exception {
+        pool = new ConnectionPool(this::open, new ConnectionPool.Settings(0, 4, 60_000, 1_000, 1_000, 0));
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+        }
+
+        assertEquals(1, opened.size());
+        assertFalse(opened.get(0).closed.get());
+        assertTrue(opened.get(0).autoCommit, "transaction state leaked back into the pool");
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(1, stats.idle());
+        assertEquals(0, stats.active());
+        assertEquals(2, stats.acquired());
+    }
+
+    @Test
+    public void closedHandleCannotBeUsed() throws Exception {
+        pool = new ConnectionPool(this::open, new ConnectionPool.Settings(0, 1, 60_000, 1_000, 1_000, 0));
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, () -> conn.setAutoCommit(false));
+        assertEquals(1, pool.getStats().idle());
+    }
+
+    @Test
+    public void timesOutWhenExhausted() throws Exception {
+        pool = new ConnectionPool(this::open, new ConnectionPool.Settings(0, 2, 60_000, 50, 1_000, 0));
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+        DataAccessException e = assertThrows(DataAccessException.class, pool::getConnection);
+        assertTrue(e.getMessage().contains("Timed out"), e.getMessage());
+        assertEquals(1, pool.getStats().timeouts());
+
+        second.close();
+        try (Connection third = pool.getConnection()) {
+            assertNotNull(third);
+        }
+        first.close();
+        assertEquals(2, opened.size());
+    }
+
+    @Test
+    public void replacesInvalidConnections() throws Exception {
+        pool = new ConnectionPool(this::open, new ConnectionPool.Settings(0, 2, 60_000, 1_000, 0, 0));
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        pool.getConnection().close();
+
+        assertEquals(2, opened.size());
+        assertTrue(opened.get(0).closed.get());
+        assertEquals(1, pool.getStats().closed());
+    }
+
+    @Test
+    public void housekeeping() throws Exception {
+        pool = new ConnectionPool(this::open, new ConnectionPool.Settings(1, 4, 0, 1_000, 1_000, 1));
+        Connection held = pool.getConnection();
+        Connection returned = pool.getConnection();
+        returned.close();
+        Thread.sleep(5);
+
+        pool.housekeep();
+        ConnectionPool.Stats stats = pool.getStats();
+        assertEquals(0, stats.idle(), "idle connection above the minimum was kept");
+        assertEquals(1, stats.leaks());
+
+        held.close();
+        pool.housekeep();
+        assertEquals(1, pool.getStats().total(), "pool shrank below its minimum");
+        assertEquals(1, pool.getStats().leaks());
+    }
+
+    private Connection open() {
+        FakeConnection fake = new FakeConnection();
+        opened.add(fake);
+        return fake.proxy;
+    }
+
+    // Just enough of a Connection to exercise the pool
+    private static class FakeConnection {
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private boolean autoCommit = true;
+        private boolean valid = true;
+        private final Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (p, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed.set(true);
+                        yield null;
+                    }
+                    case "isClosed" -> closed.get();
+                    case "isValid" -> valid;
+                    case "getAutoCommit" -> autoCommit;
+                    case "setAutoCommit" -> {
+                        autoCommit = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "rollback" -> null;
+                    case "hashCode" -> System.identityHashCode(p);
+                    case "equals" -> p == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -1,4 +1,8 @@
 package dataaccess;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.PackedMove;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
@@ -273,6 +277,151 @@ public class DataTest {
         assertNull(userDAO.getUser(user1.username()));
     }
 
+    @Test
+    @Order(26)
+    void testGetAuthDataPositive() throws DataAccessException {
+        AuthData authData = new AuthData("token", "user");
+        authDAO.addAuth("token", authData);
+        assertEquals(authData, authDAO.getAuthData("token"));
+    }
+
+    @Test
+    @Order(27)
+    void testGetAuthDataNegative() throws DataAccessException {
+        authDAO.addAuth("token", new AuthData("token", "user"));
+        assertNull(authDAO.getAuthData("tokenFake"));
+        assertNull(authDAO.getAuthData(null));
+    }
+
+    @Test
+    @Order(28)
+    void testWriteBehindUpdatePositive() throws Exception {
+        WriteBehindGameDAO writeBehind = new WriteBehindGameDAO(60_000, 60_000);
+        try {
+            writeBehind.addGame(new GameData(1, null, null, "test", null));
+            GameData game = writeBehind.getGame(1);
+            game.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            writeBehind.updateGame(1, game);
+
+            assertEquals(1, writeBehind.getDirtyCount());
+            assertEquals(ChessGame.TeamColor.BLACK, writeBehind.getGame(1).game().getTeamTurn());
+            assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGame(1).game().getTeamTurn());
+
+            writeBehind.flush();
+            assertEquals(0, writeBehind.getDirtyCount());
+            assertEquals(game, gameDAO.getGame(1));
+
+            // Shutting down writes what is left, and later updates go straight through
+            game.game().makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+            writeBehind.updateGame(1, game);
+            writeBehind.shutdown();
+            assertEquals(game, gameDAO.getGame(1));
+            game.game().makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+            writeBehind.updateGame(1, game);
+            assertEquals(0, writeBehind.getDirtyCount());
+            assertEquals(game, gameDAO.getGame(1));
+
+            // Once started again, updates are buffered as before
+            writeBehind.start();
+            game.game().makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+            writeBehind.updateGame(1, game);
+            assertEquals(1, writeBehind.getDirtyCount());
+        } finally {
+            writeBehind.shutdown();
+        }
+    }
+
+    @Test
+    @Order(29)
+    void testWriteBehindUpdateNegative() throws Exception {
+        WriteBehindGameDAO writeBehind = new WriteBehindGameDAO(60_000, 60_000);
+        try {
+            writeBehind.addGame(new GameData(1, null, null, "test", null));
+            GameData game = writeBehind.getGame(1);
+            game.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+            // Changing a copy without updateGame leaves the stored game alone
+            assertEquals(ChessGame.TeamColor.WHITE, writeBehind.getGame(1).game().getTeamTurn());
+            assertEquals(0, writeBehind.getDirtyCount());
+            assertNull(writeBehind.getGame(2));
+        } finally {
+            writeBehind.shutdown();
+        }
+    }
+
+    @Test
+    @Order(30)
+    void testMoveLogReplayPositive() throws Exception {
+        MySQLGameDAO moveLog = new MySQLGameDAO(MySQLGameDAO.PersistenceMode.MOVE_LOG);
+        moveLog.addGame(new GameData(1, null, null, "test", null));
+        GameData game = moveLog.getGame(1);
+        game.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        moveLog.updateGame(1, game);
+        game.game().makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        moveLog.updateGame(1, new GameData(1, "white", null, "test", game.game()));
+
+        // The row still holds the starting position; the moves come from the log
+        assertEquals(0, gameDAO.getGame(1).game().getPlyCount());
+        GameData loaded = new MySQLGameDAO(MySQLGameDAO.PersistenceMode.MOVE_LOG).getGame(1);
+        assertEquals(new GameData(1, "white", null, "test", game.game()), loaded);
+        assertEquals(game.game(), moveLog.getGames().get(1).game());
+
+        // A full interval of moves since the last snapshot writes a new one
+        while (game.game().getPlyCount() < MySQLGameDAO.SNAPSHOT_INTERVAL) {
+            game.game().makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+            game.game().makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+            game.game().makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+            game.game().makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+            moveLog.updateGame(1, game);
+        }
+        assertEquals(game.game().getPlyCount(), gameDAO.getGame(1).game().getPlyCount());
+    }
+
+    @Test
+    @Order(31)
+    void testMoveLogReplayNegative() throws Exception {
+        MySQLGameDAO moveLog = new MySQLGameDAO(MySQLGameDAO.PersistenceMode.MOVE_LOG);
+        moveLog.addGame(new GameData(1, null, null, "test", null));
+        assertNull(moveLog.getGame(2));
+
+        // e2-e5 can not be played from the starting position, and 0x7FFF is no move at all
+        try (var conn = DatabaseManager.getConnection();
+             var statement = conn.prepareStatement("INSERT INTO game_move (gameID, ply, move) VALUES (1, 0, ?)")) {
+            statement.setInt(1, PackedMove.fromChessMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(5, 5), null)));
+            statement.executeUpdate();
+        }
+        DataAccessException illegal = assertThrows(DataAccessException.class,
+                () -> new MySQLGameDAO(MySQLGameDAO.PersistenceMode.MOVE_LOG).getGame(1));
+        assertTrue(illegal.getMessage().contains("illegal move at ply 0"), illegal.getMessage());
+
+        try (var conn = DatabaseManager.getConnection();
+             var statement = conn.prepareStatement("UPDATE game_move SET move = ? WHERE gameID = 1")) {
+            statement.setInt(1, PackedMove.MOVE_BITS);
+            statement.executeUpdate();
+        }
+        assertThrows(DataAccessException.class, () -> new MySQLGameDAO(MySQLGameDAO.PersistenceMode.MOVE_LOG).getGames());
+    }
+
+    @Test
+    @Order(32)
+    void testMoveLogRewriteDropsStalePlies() throws Exception {
+        MySQLGameDAO moveLog = new MySQLGameDAO(MySQLGameDAO.PersistenceMode.MOVE_LOG);
+        moveLog.addGame(new GameData(1, null, null, "test", null));
+        GameData game = moveLog.getGame(1);
+        game.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.game().makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        moveLog.updateGame(1, game);
+
+        // A DAO that has not seen the game writes a shorter history over it
+        ChessGame shorter = new ChessGame();
+        shorter.makeMove(new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+        new MySQLGameDAO(MySQLGameDAO.PersistenceMode.MOVE_LOG).updateGame(1, new GameData(1, null, null, "test", shorter));
+
+        MySQLGameDAO reader = new MySQLGameDAO(MySQLGameDAO.PersistenceMode.MOVE_LOG);
+        assertEquals(shorter, reader.getGame(1).game());
+        assertEquals(shorter, reader.getGames().get(1).game());
+    }
+
 
 
 
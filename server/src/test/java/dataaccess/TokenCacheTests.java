@@ -0,0 +1,68 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenCacheTests {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void hitsAndMisses() {
+        TokenCache cache = new TokenCache(1_000, 10, now::get);
+        assertNull(cache.get("token"));
+        cache.put("token", "user");
+        assertEquals("user", cache.get("token"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void entriesExpire() {
+        TokenCache cache = new TokenCache(1_000, 10, now::get);
+        cache.put("token", "user");
+        now.addAndGet(999_000_000L);
+        assertEquals("user", cache.get("token"));
+        now.addAndGet(1_000_000L);
+        assertNull(cache.get("token"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void invalidation() {
+        TokenCache cache = new TokenCache(1_000, 10, now::get);
+        cache.put("a", "userA");
+        cache.put("b", "userB");
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+        assertEquals("userB", cache.get("b"));
+        cache.invalidateAll();
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void staleLoadIsNotCached() {
+        TokenCache cache = new TokenCache(1_000, 10, now::get);
+        long generation = cache.generation();
+        // A logout lands between the database read and the put
+        cache.invalidate("token");
+        cache.putIfCurrent("token", "user", generation);
+        assertNull(cache.get("token"));
+
+        cache.putIfCurrent("token", "user", cache.generation());
+        assertEquals("user", cache.get("token"));
+    }
+
+    @Test
+    public void sizeIsBounded() {
+        TokenCache cache = new TokenCache(1_000, 10, now::get);
+        for (int i = 0; i < 100; i++) {
+            cache.put("token" + i, "user" + i);
+            assertTrue(cache.size() <= 10, "cache grew to " + cache.size());
+        }
+        assertTrue(cache.getEvictionCount() >= 90);
+        assertEquals("user99", cache.get("token99"));
+    }
+}
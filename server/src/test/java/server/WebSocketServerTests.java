@@ -0,0 +1,129 @@
+package server;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
+import dataaccess.DataAccessException;
+import model.AuthData;
+import model.GameData;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.AnalysisService;
+import service.ClearService;
+import service.GenericService;
+import websocket.commands.Analyze;
+import websocket.commands.Connect;
+import websocket.commands.MakeMove;
+import websocket.messages.ServerMessage;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebSocketServerTests {
+    private final Gson gson = new Gson();
+    private AnalysisService analysisService;
+    private WebSocketServer webSocketServer;
+
+    @BeforeEach
+    public void setUp() throws DataAccessException {
+        new ClearService().clear();
+        GenericService.getAuthDAO().addAuth("whiteToken", new AuthData("whiteToken", "white"));
+        GenericService.getAuthDAO().addAuth("blackToken", new AuthData("blackToken", "black"));
+        GenericService.getGameDAO().addGame(new GameData(1, "white", "black", "game", null));
+        analysisService = new AnalysisService(1, 4, 1);
+        webSocketServer = new WebSocketServer(analysisService);
+    }
+
+    @AfterEach
+    public void tearDown() throws DataAccessException {
+        analysisService.shutdown();
+        new ClearService().clear();
+    }
+
+    @Test
+    public void movesWhileAnalysisRuns() throws Exception {
+        FakeSession white = new FakeSession();
+        FakeSession black = new FakeSession();
+        webSocketServer.onMessage(white.session, gson.toJson(new Connect("whiteToken", 1)));
+        webSocketServer.onMessage(black.session, gson.toJson(new Connect("blackToken", 1)));
+
+        webSocketServer.onMessage(white.session, gson.toJson(new Analyze("whiteToken", 1, 100)));
+        // Pawn moves that never repeat a position, made while the analysis reply is on its way
+        for (int i = 0; i < 32 && !white.received(ServerMessage.ServerMessageType.ANALYSIS); i++) {
+            int col = i / 2 % 8 + 1;
+            int step = i / 16;
+            boolean whiteMoves = i % 2 == 0;
+            ChessMove move = whiteMoves ? move(2 + step, col, 3 + step, col) : move(7 - step, col, 6 - step, col);
+            webSocketServer.onMessage(whiteMoves ? white.session : black.session,
+                    gson.toJson(new MakeMove(whiteMoves ? "whiteToken" : "blackToken", 1, move)));
+        }
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!white.received(ServerMessage.ServerMessageType.ANALYSIS)) {
+            assertTrue(System.currentTimeMillis() < deadline, "no analysis reply");
+            Thread.sleep(10);
+        }
+
+        assertFalse(white.overlapped.get(), "two sends ran on one session at once");
+        assertFalse(white.received(ServerMessage.ServerMessageType.ERROR));
+    }
+
+    @Test
+    public void analysisOfMissingGame() throws Exception {
+        FakeSession white = new FakeSession();
+        webSocketServer.onMessage(white.session, gson.toJson(new Analyze("whiteToken", 2, 100)));
+
+        assertTrue(white.received(ServerMessage.ServerMessageType.ERROR));
+        assertFalse(white.received(ServerMessage.ServerMessageType.ANALYSIS));
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    // A session whose remote endpoint is slow and notices sends that overlap, as Jetty's
+    // blocking endpoint would refuse them
+    private class FakeSession {
+        private final List<ServerMessage> messages = new CopyOnWriteArrayList<>();
+        private final AtomicInteger sending = new AtomicInteger();
+        private final AtomicBoolean overlapped = new AtomicBoolean();
+
+        private final RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(
+                RemoteEndpoint.class.getClassLoader(), new Class<?>[]{RemoteEndpoint.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("sendString") || args.length != 1) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    if (sending.incrementAndGet() > 1) {
+                        overlapped.set(true);
+                    }
+                    try {
+                        Thread.sleep(5);
+                        messages.add(gson.fromJson((String) args[0], ServerMessage.class));
+                    } finally {
+                        sending.decrementAndGet();
+                    }
+                    return null;
+                });
+
+        private final Session session = (Session) Proxy.newProxyInstance(
+                Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getRemote" -> remote;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        private boolean received(ServerMessage.ServerMessageType type) {
+            return messages.stream().anyMatch(message -> message.getServerMessageType() == type);
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package service;
 
 import chess.ChessGame;
+import model.AnalysisResult;
 import model.GameData;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ServiceTest {
@@ -104,4 +108,58 @@ class ServiceTest {
         RegisterService registerService1 = new RegisterService();
         assertNotEquals(registerService, registerService1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void analysisPositive() throws Exception {
+        AnalysisService analysisService = new AnalysisService(1, 4, 1);
+        try {
+            ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+            CompletableFuture<AnalysisResult> first = analysisService.analyze(game, 200);
+            CompletableFuture<AnalysisResult> second = analysisService.analyze(game, 200);
+            AnalysisResult result = first.get(5, TimeUnit.SECONDS);
+
+            assertSame(first, second);
+            assertEquals(1, analysisService.getSearchCount());
+            assertEquals(1, analysisService.getCoalescedCount());
+            assertEquals("Ra8#", result.bestMove());
+            assertEquals(1, result.mate());
+        } finally {
+            analysisService.shutdown();
+        }
+    }
+
+    @Test
+    void analysisLongerBudgetNotCoalesced() throws Exception {
+        AnalysisService analysisService = new AnalysisService(1, 4, 1);
+        try {
+            ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+            CompletableFuture<AnalysisResult> quick = analysisService.analyze(game, 50);
+            CompletableFuture<AnalysisResult> longer = analysisService.analyze(game, 500);
+            CompletableFuture<AnalysisResult> shorter = analysisService.analyze(game, 100);
+
+            // The longer request gets its own search, and the later, shorter one joins it
+            assertNotSame(quick, longer);
+            assertSame(longer, shorter);
+            quick.get(5, TimeUnit.SECONDS);
+            longer.get(5, TimeUnit.SECONDS);
+            assertEquals(2, analysisService.getSearchCount());
+            assertEquals(1, analysisService.getCoalescedCount());
+        } finally {
+            analysisService.shutdown();
+        }
+    }
+
+    @Test
+    void analysisNegative() throws Exception {
+        AnalysisService analysisService = new AnalysisService(1, 1, 1);
+        try {
+            analysisService.analyze(new ChessGame(), 2_000);
+            analysisService.analyze(ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"), 2_000);
+            Exception full = assertThrows(Exception.class,
+                    () -> analysisService.analyze(ChessGame.fromFen("4k3/8/8/8/8/8/3P4/4K3 w - - 0 1"), 2_000));
+            assertEquals("Analysis queue is full", full.getMessage());
+        } finally {
+            analysisService.shutdown();
+        }
+    }
+}
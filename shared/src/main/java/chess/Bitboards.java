@@ -0,0 +1,228 @@
+package chess;
+
+/**
+ * Precomputed attack tables for the bitboard board core. Squares are numbered
+ * 0 = a1 through 63 = h8, and every table is filled once when the class loads.
+ * <p>
+ * Rook and bishop attacks use magic bitboards: the blockers on a square's
+ * relevant rays are multiplied by a per-square magic number and the top bits of
+ * the product index a table of precomputed attack sets. Magics are searched with
+ * a fixed seed during class initialization, so the tables are identical on every run.
+ */
+public final class Bitboards {
+    private static final int[][] KNIGHT_STEPS = {
+            {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+    private static final int[][] KING_STEPS = {
+            {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}
+    };
+    // Ray directions; the first four run towards higher squares, the last four towards lower ones
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {0, 1}, {1, 1}, {1, -1},
+            {-1, 0}, {0, -1}, {-1, -1}, {-1, 1}
+    };
+    private static final int NORTH = 0, EAST = 1, NORTH_EAST = 2, NORTH_WEST = 3;
+    private static final int SOUTH = 4, WEST = 5, SOUTH_WEST = 6, SOUTH_EAST = 7;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    private static final long[][] RAYS = new long[8][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] ROOK_MAGICS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[] BISHOP_MAGICS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = steps(square, KNIGHT_STEPS);
+            KING_ATTACKS[square] = steps(square, KING_STEPS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = steps(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = steps(square, new int[][]{{-1, -1}, {-1, 1}});
+            for (int direction = 0; direction < 8; direction++) {
+                RAYS[direction][square] = ray(square, DIRECTIONS[direction]);
+            }
+        }
+
+        MagicSearch search = new MagicSearch();
+        for (int square = 0; square < 64; square++) {
+            ROOK_MASKS[square] = relevantBlockers(square, NORTH, EAST, SOUTH, WEST);
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            ROOK_MAGICS[square] = search.find(square, ROOK_MASKS[square], ROOK_SHIFTS[square], false);
+            ROOK_TABLE[square] = search.table;
+
+            BISHOP_MASKS[square] = relevantBlockers(square, NORTH_EAST, NORTH_WEST, SOUTH_WEST, SOUTH_EAST);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+            BISHOP_MAGICS[square] = search.find(square, BISHOP_MASKS[square], BISHOP_SHIFTS[square], true);
+            BISHOP_TABLE[square] = search.table;
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color standing on the square attacks
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        long blockers = occupied & BISHOP_MASKS[square];
+        return BISHOP_TABLE[square][(int) ((blockers * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        long blockers = occupied & ROOK_MASKS[square];
+        return ROOK_TABLE[square][(int) ((blockers * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return bishopAttacks(square, occupied) | rookAttacks(square, occupied);
+    }
+
+    // Ray-walking versions, only used to fill the magic tables
+    private static long slowBishopAttacks(int square, long occupied) {
+        return positiveRay(NORTH_EAST, square, occupied) | positiveRay(NORTH_WEST, square, occupied)
+                | negativeRay(SOUTH_WEST, square, occupied) | negativeRay(SOUTH_EAST, square, occupied);
+    }
+
+    private static long slowRookAttacks(int square, long occupied) {
+        return positiveRay(NORTH, square, occupied) | positiveRay(EAST, square, occupied)
+                | negativeRay(SOUTH, square, occupied) | negativeRay(WEST, square, occupied);
+    }
+
+    // A ray stops at its first blocker (which is still attacked); for rays towards higher
+    // squares that is the lowest set bit, for rays towards lower squares the highest
+    private static long positiveRay(int direction, int square, long occupied) {
+        long attacks = RAYS[direction][square];
+        long blockers = attacks & occupied;
+        if (blockers != 0) {
+            attacks ^= RAYS[direction][Long.numberOfTrailingZeros(blockers)];
+        }
+        return attacks;
+    }
+
+    private static long negativeRay(int direction, int square, long occupied) {
+        long attacks = RAYS[direction][square];
+        long blockers = attacks & occupied;
+        if (blockers != 0) {
+            attacks ^= RAYS[direction][63 - Long.numberOfLeadingZeros(blockers)];
+        }
+        return attacks;
+    }
+
+    // The squares whose occupancy changes a slider's attacks: its rays minus the board edge
+    // square at the end of each ray, since a piece there never blocks anything further
+    private static long relevantBlockers(int square, int... directions) {
+        long mask = 0L;
+        for (int direction : directions) {
+            long ray = RAYS[direction][square];
+            if (ray != 0) {
+                long edge = direction < 4 ? Long.highestOneBit(ray) : Long.lowestOneBit(ray);
+                mask |= ray & ~edge;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Finds a magic number for one square by trial: a sparse random candidate works if
+     * no two blocker sets that produce different attacks land on the same table slot.
+     */
+    private static final class MagicSearch {
+        // Per-rank seeds known to find magics in few attempts (the same ones Stockfish uses)
+        private static final long[] SEEDS = {728, 10316, 55013, 32803, 12281, 15100, 16645, 255};
+
+        private final long[] blockers = new long[4096];
+        private final long[] attacks = new long[4096];
+        private final int[] epoch = new int[4096];
+        private int attempt;
+        private long seed;
+        private long[] table;
+
+        private long find(int square, long mask, int shift, boolean bishop) {
+            seed = SEEDS[square / 8];
+            // Enumerate every subset of the mask (carry-rippler) with its true attack set
+            int count = 0;
+            long subset = 0L;
+            do {
+                blockers[count] = subset;
+                attacks[count] = bishop ? slowBishopAttacks(square, subset) : slowRookAttacks(square, subset);
+                count++;
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+
+            table = new long[1 << (64 - shift)];
+            while (true) {
+                long magic = nextRandom() & nextRandom() & nextRandom();
+                if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                    continue;
+                }
+                // Bumping the epoch marks every slot of the reused table as free again
+                attempt++;
+                boolean collision = false;
+                for (int i = 0; i < count && !collision; i++) {
+                    int index = (int) ((blockers[i] * magic) >>> shift);
+                    if (epoch[index] != attempt) {
+                        epoch[index] = attempt;
+                        table[index] = attacks[i];
+                    } else if (table[index] != attacks[i]) {
+                        collision = true;
+                    }
+                }
+                if (!collision) {
+                    return magic;
+                }
+            }
+        }
+
+        // xorshift64*
+        private long nextRandom() {
+            seed ^= seed >>> 12;
+            seed ^= seed << 25;
+            seed ^= seed >>> 27;
+            return seed * 0x2545F4914F6CDD1DL;
+        }
+    }
+
+    private static long steps(int square, int[][] steps) {
+        int row = square / 8;
+        int col = square % 8;
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int newRow = row + step[0];
+            int newCol = col + step[1];
+            if (newRow >= 0 && newRow < 8 && newCol >= 0 && newCol < 8) {
+                attacks |= 1L << (newRow * 8 + newCol);
+            }
+        }
+        return attacks;
+    }
+
+    private static long ray(int square, int[] direction) {
+        long attacks = 0L;
+        int row = square / 8 + direction[0];
+        int col = square % 8 + direction[1];
+        while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+            attacks |= 1L << (row * 8 + col);
+            row += direction[0];
+            col += direction[1];
+        }
+        return attacks;
+    }
+}
@@ -1,27 +1,75 @@
 package chess;
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The board is stored as twelve bitboards (one {@code long} per color and piece
+ * type, bit 0 = a1, bit 63 = h8) plus an occupancy mask per color. The
+ * {@link ChessPosition}/{@link ChessPiece} methods are a facade over those masks.
+ * Boards stored as JSON in the older grid layout are read by {@link ChessBoardJsonAdapter}.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoardJsonAdapter.class)
 public class ChessBoard {
-    private ChessPiece[][] board;
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Largest halfmove clock the undo record can hold (see makeMove)
+    public static final int MAX_HALFMOVE_CLOCK = (1 << 17) - 1;
+
+    private static final long DARK_SQUARES = 0xAA55AA55AA55AA55L;
+
+    // Castling rights that survive a move touching each square (king and rook home squares clear theirs)
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[0] = ~WHITE_QUEENSIDE & ALL_CASTLING;
+        CASTLING_MASK[4] = ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) & ALL_CASTLING;
+        CASTLING_MASK[7] = ~WHITE_KINGSIDE & ALL_CASTLING;
+        CASTLING_MASK[56] = ~BLACK_QUEENSIDE & ALL_CASTLING;
+        CASTLING_MASK[60] = ~(BLACK_KINGSIDE | BLACK_QUEENSIDE) & ALL_CASTLING;
+        CASTLING_MASK[63] = ~BLACK_KINGSIDE & ALL_CASTLING;
+    }
+
+    private long[] bitboards;
+    private long[] occupancy;
+    private int castlingRights;
+    private int enPassantSquare;
+    // Plies since the last capture or pawn move
+    private int halfmoveClock;
+    // Zobrist key of the pieces alone, updated on every piece change (see zobristKey())
+    private long pieceKey;
+
+    // Undo stack for makeMove/unmakeMove; each entry is the move plus a packed undo record
+    private transient int[] undoMoves;
+    private transient int[] undoStates;
+    private transient int undoCount;
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        // Different keys always mean different placements; equal keys still need the real comparison
+        return pieceKey == that.pieceKey && Arrays.equals(bitboards, that.bitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        // equals only compares piece placement, so the hash must ignore castling and en passant too
+        return Long.hashCode(pieceKey);
     }
 
     public boolean isValidPosition(int row, int col) {
@@ -31,7 +79,23 @@ public class ChessBoard {
 
 
     public ChessBoard() {
-        this.board = new ChessPiece[8][8]; // Initialize the instance variable
+        this.bitboards = new long[12];
+        this.occupancy = new long[2];
+        this.castlingRights = ALL_CASTLING;
+        this.enPassantSquare = -1;
+        this.undoMoves = new int[64];
+        this.undoStates = new int[64];
+    }
+
+    public ChessBoard(ChessBoard original) {
+        this.bitboards = original.bitboards.clone();
+        this.occupancy = original.occupancy.clone();
+        this.castlingRights = original.castlingRights;
+        this.enPassantSquare = original.enPassantSquare;
+        this.halfmoveClock = original.halfmoveClock;
+        this.pieceKey = original.pieceKey;
+        this.undoMoves = new int[64];
+        this.undoStates = new int[64];
     }
 
     /**
@@ -41,20 +105,10 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        int row = position.getRow() - 1;
-        int column = position.getColumn() - 1;
-        board[row][column] = piece;
-    }
-
-    public ChessBoard(ChessBoard original) {
-        this.board = new ChessPiece[8][8];
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = original.board[row][col];
-                if (piece != null) {
-                    this.board[row][col] = new ChessPiece(piece); // Chess Piece Copy Constructor
-                }
-            }
+        int square = square(position.getRow(), position.getColumn());
+        clearSquare(square);
+        if (piece != null) {
+            setSquare(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
         }
     }
 
@@ -66,12 +120,27 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        if (board[position.getRow() - 1][position.getColumn() - 1] != null) {
-            return board[position.getRow() - 1][position.getColumn() - 1];
-        }
-        else {
+        int index = pieceIndexAt(square(position.getRow(), position.getColumn()));
+        if (index < 0) {
             return null;
         }
+        return ChessPiece.of(COLORS[index / 6], TYPES[index % 6]);
+    }
+
+    /**
+     * @return the piece placement field of this board's FEN, e.g. "8/8/8/8/8/8/8/K6k"
+     */
+    public String toFen() {
+        return Fen.formatPlacement(this);
+    }
+
+    /**
+     * Creates a board from the piece placement field of a FEN string
+     *
+     * @throws IllegalArgumentException if the placement is not valid FEN
+     */
+    public static ChessBoard fromFen(String placement) {
+        return Fen.parsePlacement(placement);
     }
 
     /**
@@ -79,36 +148,342 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                board[i][j] = null;
+        Arrays.fill(bitboards, 0L);
+        Arrays.fill(occupancy, 0L);
+        pieceKey = 0L;
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
+        halfmoveClock = 0;
+        undoCount = 0;
+
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK
+        };
+        for (int col = 0; col < 8; col++) {
+            // Place white pieces
+            setSquare(col, pieceIndex(ChessGame.TeamColor.WHITE, backRank[col]));
+            setSquare(8 + col, pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            // Place black pieces
+            setSquare(48 + col, pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            setSquare(56 + col, pieceIndex(ChessGame.TeamColor.BLACK, backRank[col]));
+        }
+    }
+
+    /**
+     * Plays a packed move (see {@link PackedMove}) in place, recording what is needed
+     * to take it back with {@link #unmakeMove()}. The move is not checked for legality.
+     *
+     * @param move packed move produced by {@link MoveGenerator}
+     */
+    public void makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int moving = pieceIndexAt(from);
+        int captureSquare = captureSquare(move);
+        int captured = pieceIndexAt(captureSquare);
+
+        // Undo record: captured piece + 1 (4 bits), castling rights (4 bits), en passant square + 1 (7 bits),
+        // halfmove clock (remaining bits)
+        pushUndo(move, (captured + 1) | (castlingRights << 4) | ((enPassantSquare + 1) << 8) | (halfmoveClock << 15));
+
+        if (captured >= 0) {
+            toggle(captureSquare, captured);
+        }
+        toggle(from, moving);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        toggle(to, promotion == null ? moving : (moving / 6) * 6 + promotion.ordinal());
+        if (PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+            int rook = (moving / 6) * 6 + ChessPiece.PieceType.ROOK.ordinal();
+            toggle(castleRookFrom(to), rook);
+            toggle(castleRookTo(to), rook);
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        enPassantSquare = PackedMove.hasFlag(move, PackedMove.DOUBLE_PUSH) ? (from + to) / 2 : -1;
+        boolean irreversible = captured >= 0 || moving % 6 == ChessPiece.PieceType.PAWN.ordinal();
+        halfmoveClock = irreversible ? 0 : Math.min(halfmoveClock + 1, MAX_HALFMOVE_CLOCK);
+    }
+
+    /**
+     * Passes the turn without moving a piece, for null-move pruning in a search: clears
+     * the en passant square and advances the halfmove clock. Take it back with
+     * {@link #unmakeNullMove()}.
+     */
+    public void makeNullMove() {
+        pushUndo(PackedMove.NONE, (castlingRights << 4) | ((enPassantSquare + 1) << 8) | (halfmoveClock << 15));
+        enPassantSquare = -1;
+        halfmoveClock = Math.min(halfmoveClock + 1, MAX_HALFMOVE_CLOCK);
+    }
+
+    public void unmakeNullMove() {
+        undoCount--;
+        int state = undoStates[undoCount];
+        enPassantSquare = ((state >>> 8) & 0x7F) - 1;
+        halfmoveClock = state >>> 15;
+    }
+
+    // An en passant capture takes the pawn beside the moving pawn: on its starting rank and the target file
+    private static int captureSquare(int move) {
+        int to = PackedMove.to(move);
+        return PackedMove.hasFlag(move, PackedMove.EN_PASSANT) ? (PackedMove.from(move) & ~7) | (to & 7) : to;
+    }
+
+    // The rook's squares for a castle, given the king's destination (g- or c-file)
+    private static int castleRookFrom(int kingTo) {
+        return (kingTo & 7) == 6 ? kingTo + 1 : kingTo - 2;
+    }
+
+    private static int castleRookTo(int kingTo) {
+        return (kingTo & 7) == 6 ? kingTo - 1 : kingTo + 1;
+    }
+
+    /**
+     * Takes back the most recent move played with {@link #makeMove(int)}
+     */
+    public void unmakeMove() {
+        undoCount--;
+        int move = undoMoves[undoCount];
+        int state = undoStates[undoCount];
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+
+        int placed = pieceIndexAt(to);
+        toggle(to, placed);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        toggle(from, promotion == null ? placed : (placed / 6) * 6 + ChessPiece.PieceType.PAWN.ordinal());
+
+        int captured = (state & 0xF) - 1;
+        if (captured >= 0) {
+            toggle(captureSquare(move), captured);
+        }
+        if (PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+            int rook = (placed / 6) * 6 + ChessPiece.PieceType.ROOK.ordinal();
+            toggle(castleRookTo(to), rook);
+            toggle(castleRookFrom(to), rook);
+        }
+        castlingRights = (state >>> 4) & 0xF;
+        enPassantSquare = ((state >>> 8) & 0x7F) - 1;
+        halfmoveClock = state >>> 15;
+    }
+
+    /**
+     * Determines if neither team has the material to ever checkmate: bare kings, a single
+     * minor piece, or only bishops that all stand on squares of one color
+     */
+    public boolean hasInsufficientMaterial() {
+        long heavy = 0L;
+        long knights = 0L;
+        long bishops = 0L;
+        for (ChessGame.TeamColor color : COLORS) {
+            heavy |= getBitboard(color, ChessPiece.PieceType.PAWN) | getBitboard(color, ChessPiece.PieceType.ROOK)
+                    | getBitboard(color, ChessPiece.PieceType.QUEEN);
+            knights |= getBitboard(color, ChessPiece.PieceType.KNIGHT);
+            bishops |= getBitboard(color, ChessPiece.PieceType.BISHOP);
+        }
+        if (heavy != 0) {
+            return false;
+        }
+        if (Long.bitCount(knights | bishops) <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & DARK_SQUARES) == 0 || (bishops & ~DARK_SQUARES) == 0);
+    }
+
+    // Number of moves that unmakeMove can take back; not kept across copies or serialization
+    int getUndoDepth() {
+        return undoCount;
+    }
+
+    /**
+     * Determines if a square is attacked by any piece of the given team, using the
+     * precomputed attack tables in {@link Bitboards}
+     *
+     * @param square square index, 0 = a1
+     * @param byColor the attacking team
+     * @return True if a piece of that team attacks the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        int base = byColor.ordinal() * 6;
+        ChessGame.TeamColor defender = byColor == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        // A pawn of ours on this square would attack exactly the squares their pawns attack it from
+        if ((Bitboards.pawnAttacks(defender, square) & bitboards[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0
+                || (Bitboards.knightAttacks(square) & bitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0
+                || (Bitboards.kingAttacks(square) & bitboards[base + ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+        long occupied = getOccupied();
+        long queens = bitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long diagonal = bitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        long straight = bitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        return (Bitboards.bishopAttacks(square, occupied) & diagonal) != 0
+                || (Bitboards.rookAttacks(square, occupied) & straight) != 0;
+    }
+
+    /**
+     * @return the square of the given team's king, or -1 if it has none on the board
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        long king = bitboards[pieceIndex(color, ChessPiece.PieceType.KING)];
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * @return True if the given team's king is attacked
+     */
+    public boolean isInCheck(ChessGame.TeamColor color) {
+        int king = kingSquare(color);
+        ChessGame.TeamColor enemy = color == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return king >= 0 && isSquareAttacked(king, enemy);
+    }
+
+    /**
+     * Gets the 64-bit Zobrist key of this board: the pieces, castling rights and en passant
+     * file (only when an enemy pawn can actually capture). The piece part is maintained
+     * incrementally by {@link #addPiece} and {@link #makeMove(int)}; the side to move is
+     * added by {@link ChessGame#zobristKey()}.
+     *
+     * @return the Zobrist key
+     */
+    public long zobristKey() {
+        long key = pieceKey ^ Zobrist.castling(castlingRights);
+        if (enPassantSquare >= 0 && canCaptureEnPassant()) {
+            key ^= Zobrist.enPassantFile(enPassantSquare % 8);
+        }
+        return key;
+    }
+
+    private boolean canCaptureEnPassant() {
+        // The en passant square sits on rank 3 after a white double push and rank 6 after a black one
+        boolean whitePushed = enPassantSquare < 32;
+        ChessGame.TeamColor pusher = whitePushed ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessGame.TeamColor capturer = whitePushed ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return (Bitboards.pawnAttacks(pusher, enPassantSquare)
+                & bitboards[pieceIndex(capturer, ChessPiece.PieceType.PAWN)]) != 0;
+    }
+
+    /**
+     * @return the castling rights still available, as a mask of the {@code *_KINGSIDE}/{@code *_QUEENSIDE} bits
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights & ALL_CASTLING;
+    }
+
+    /**
+     * @return the square a pawn may capture en passant on, or -1 if there is none
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    /**
+     * @return the number of plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
+
+    /**
+     * @return the square index (0 = a1, 63 = h8) for a 1-based row and column
+     */
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * @return the bitboard index (0-11) used for a piece of the given color and type
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * @return the bitboard holding every piece of the given color and type
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return bitboards[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return the mask of squares occupied by the given team
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return occupancy[color.ordinal()];
+    }
+
+    /**
+     * @return the mask of every occupied square
+     */
+    public long getOccupied() {
+        return occupancy[0] | occupancy[1];
+    }
+
+    /**
+     * Gets the bitboard index of the piece on a square
+     *
+     * @param square square index, 0 = a1
+     * @return the piece index (see {@link #pieceIndex}), or -1 if the square is empty
+     */
+    public int pieceIndexAt(int square) {
+        long bit = 1L << square;
+        int first;
+        if ((occupancy[0] & bit) != 0) {
+            first = 0;
+        } else if ((occupancy[1] & bit) != 0) {
+            first = 6;
+        } else {
+            return -1;
+        }
+        for (int index = first; index < first + 6; index++) {
+            if ((bitboards[index] & bit) != 0) {
+                return index;
             }
         }
-        // Place white pieces
-        for (int i = 0; i < 8; i++) {
-            board[1][i] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-        }
-        board[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        board[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        board[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        board[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-
-        // Place black pieces
-        for (int i = 0; i < 8; i++) {
-            board[6][i] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-        }
-        board[7][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        board[7][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        board[7][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        board[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        board[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        board[7][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        board[7][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        board[7][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        return -1;
+    }
+
+    private void pushUndo(int move, int state) {
+        if (undoCount == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoCount * 2);
+            undoStates = Arrays.copyOf(undoStates, undoCount * 2);
+        }
+        undoMoves[undoCount] = move;
+        undoStates[undoCount] = state;
+        undoCount++;
+    }
+
+    private void toggle(int square, int index) {
+        long bit = 1L << square;
+        bitboards[index] ^= bit;
+        occupancy[index / 6] ^= bit;
+        pieceKey ^= Zobrist.piece(index, square);
+    }
+
+    // Only valid on an empty square
+    private void setSquare(int square, int index) {
+        toggle(square, index);
+    }
+
+    private void clearSquare(int square) {
+        int index = pieceIndexAt(square);
+        if (index >= 0) {
+            toggle(square, index);
+        }
     }
 }
 
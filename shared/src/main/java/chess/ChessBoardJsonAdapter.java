@@ -0,0 +1,85 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Gson support for {@link ChessBoard}. Boards are written field by field, as Gson would
+ * without this adapter. Boards saved before the bitboard layout were written as an 8x8
+ * {@code board} grid of pieces ({@code board[row - 1][col - 1]}); those are still read,
+ * so games stored in that shape keep their positions.
+ */
+final class ChessBoardJsonAdapter implements TypeAdapterFactory {
+    private static final String LEGACY_GRID = "board";
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != ChessBoard.class) {
+            return null;
+        }
+        TypeAdapter<T> fields = gson.getDelegateAdapter(this, type);
+        TypeAdapter<JsonElement> tree = gson.getAdapter(JsonElement.class);
+        return new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                fields.write(out, value);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T read(JsonReader in) throws IOException {
+                JsonElement json = tree.read(in);
+                if (json.isJsonObject() && json.getAsJsonObject().has(LEGACY_GRID)) {
+                    return (T) fromGrid(json.getAsJsonObject().getAsJsonArray(LEGACY_GRID));
+                }
+                return fields.fromJsonTree(json);
+            }
+        };
+    }
+
+    static ChessBoard fromGrid(JsonArray grid) {
+        ChessBoard board = new ChessBoard();
+        for (int row = 0; row < grid.size() && row < 8; row++) {
+            JsonArray cells = grid.get(row).getAsJsonArray();
+            for (int col = 0; col < cells.size() && col < 8; col++) {
+                if (cells.get(col).isJsonNull()) {
+                    continue;
+                }
+                JsonObject piece = cells.get(col).getAsJsonObject();
+                board.addPiece(new ChessPosition(row + 1, col + 1), ChessPiece.of(
+                        ChessGame.TeamColor.valueOf(piece.get("pieceColor").getAsString()),
+                        ChessPiece.PieceType.valueOf(piece.get("type").getAsString())));
+            }
+        }
+        // The grid did not record whether pieces had moved, so allow castling wherever the
+        // king and rook are still on their home squares
+        board.setCastlingRights(castlingFromPlacement(board));
+        return board;
+    }
+
+    private static int castlingFromPlacement(ChessBoard board) {
+        int rights = 0;
+        int whiteKing = ChessBoard.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        int whiteRook = ChessBoard.pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        int blackKing = ChessBoard.pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        int blackRook = ChessBoard.pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        if (board.pieceIndexAt(4) == whiteKing) {
+            rights |= board.pieceIndexAt(7) == whiteRook ? ChessBoard.WHITE_KINGSIDE : 0;
+            rights |= board.pieceIndexAt(0) == whiteRook ? ChessBoard.WHITE_QUEENSIDE : 0;
+        }
+        if (board.pieceIndexAt(60) == blackKing) {
+            rights |= board.pieceIndexAt(63) == blackRook ? ChessBoard.BLACK_KINGSIDE : 0;
+            rights |= board.pieceIndexAt(56) == blackRook ? ChessBoard.BLACK_QUEENSIDE : 0;
+        }
+        return rights;
+    }
+}
@@ -1,7 +1,9 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -11,14 +13,46 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessGame {
+    static final String STANDARD_START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
     private TeamColor teamTurn;
     private ChessBoard board;
+    // Starts at 1 and goes up after each black move, as in FEN/PGN
+    private int fullmoveNumber;
+
+    // Moves played since startFen (null for the standard starting position), packed as in PackedMove
+    private String startFen;
+    private int[] moveHistory;
+    private int plyCount;
+
+    // Zobrist keys of the positions after 0..plyCount moves; rebuilt by replay when keyCount != plyCount + 1
+    private transient long[] positionKeys;
+    private transient int keyCount;
+
+    // Status of the current position, reused until the position (Zobrist key) changes
+    private transient GameStatus status;
+    private transient long statusKey;
 
     public ChessGame() {
         // Initialize the game
         teamTurn = TeamColor.WHITE;
         board = new ChessBoard();
         board.resetBoard();
+        fullmoveNumber = 1;
+        moveHistory = new int[0];
+    }
+
+    public ChessGame(ChessGame original) {
+        this.teamTurn = original.teamTurn;
+        this.board = new ChessBoard(original.board);
+        this.fullmoveNumber = original.fullmoveNumber;
+        this.startFen = original.startFen;
+        this.moveHistory = Arrays.copyOf(original.moveHistory, original.plyCount);
+        this.plyCount = original.plyCount;
+        if (original.keyCount == original.plyCount + 1) {
+            this.positionKeys = Arrays.copyOf(original.positionKeys, original.keyCount);
+            this.keyCount = original.keyCount;
+        }
     }
 
     /**
@@ -35,6 +69,135 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.teamTurn = team;
+        restartHistory();
+    }
+
+    /**
+     * @return the current full move number, starting at 1 and increasing after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
+        restartHistory();
+    }
+
+    // Starts a new history at the current position, after it was set directly
+    private void restartHistory() {
+        plyCount = 0;
+        keyCount = 0;
+    }
+
+    /**
+     * @return the number of half-moves played since the game started, or since the
+     * position was last set directly
+     */
+    public int getPlyCount() {
+        return plyCount;
+    }
+
+    /**
+     * @return the moves played so far, oldest first
+     */
+    public List<ChessMove> getMoveHistory() {
+        List<ChessMove> moves = new ArrayList<>(plyCount);
+        for (int ply = 0; ply < plyCount; ply++) {
+            moves.add(PackedMove.toChessMove(moveHistory[ply]));
+        }
+        return moves;
+    }
+
+    /**
+     * @return the most recent move, or null if no moves have been played
+     */
+    public ChessMove getLastMove() {
+        return plyCount == 0 ? null : PackedMove.toChessMove(moveHistory[plyCount - 1]);
+    }
+
+    int getPackedMove(int ply) {
+        return moveHistory[ply];
+    }
+
+    /**
+     * @return the position the move history starts from, in FEN
+     */
+    public String getStartFen() {
+        return startFen != null ? startFen : STANDARD_START_FEN;
+    }
+
+    /**
+     * Takes back the most recent move. If the board's undo information was not kept
+     * (e.g. after the game was deserialized), the position is rebuilt by replaying the
+     * history, which replaces the board object.
+     *
+     * @return the move that was taken back, or null if no moves have been played
+     */
+    public ChessMove undo() {
+        if (plyCount == 0) {
+            return null;
+        }
+        int move = moveHistory[plyCount - 1];
+        if (board.getUndoDepth() > 0) {
+            if (keyCount == plyCount + 1) {
+                keyCount--;
+            }
+            board.unmakeMove();
+            teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+            if (teamTurn == TeamColor.BLACK) {
+                fullmoveNumber--;
+            }
+            plyCount--;
+        } else {
+            ChessGame previous = replayTo(plyCount - 1);
+            board = previous.board;
+            teamTurn = previous.teamTurn;
+            fullmoveNumber = previous.fullmoveNumber;
+            plyCount = previous.plyCount;
+            positionKeys = previous.positionKeys;
+            keyCount = previous.keyCount;
+        }
+        status = null;
+        return PackedMove.toChessMove(move);
+    }
+
+    /**
+     * Rebuilds the game as it was after the given number of half-moves. This game is not
+     * changed.
+     *
+     * @param ply how many moves of the history to keep, from 0 to {@link #getPlyCount()}
+     * @return a new game at that point, with the history up to it
+     */
+    public ChessGame replayTo(int ply) {
+        if (ply < 0 || ply > plyCount) {
+            throw new IllegalArgumentException("Ply " + ply + " is outside the game's " + plyCount + " moves");
+        }
+        if (ply == plyCount) {
+            return new ChessGame(this);
+        }
+        ChessGame replay = startFen == null ? new ChessGame() : fromFen(startFen);
+        for (int i = 0; i < ply; i++) {
+            replay.playMove(moveHistory[i]);
+        }
+        return replay;
+    }
+
+    /**
+     * @return the game's position in Forsyth-Edwards Notation, with all six fields
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation. Fields after the side to
+     * move may be omitted.
+     *
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parseGame(fen);
     }
 
     /**
@@ -58,35 +221,31 @@ public class ChessGame {
             return null;
         }
 
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
-
-        for (ChessMove move : possibleMoves) {
-            // Make the move on a temporary board to check if it results in a check
-            ChessBoard copyBoard = new ChessBoard(board);
-            ChessPiece capturedPiece = copyBoard.getPiece(move.getEndPosition());
-            copyBoard.addPiece(move.getEndPosition(), piece);
-            copyBoard.addPiece(startPosition, null);
-
-            // Check if the move puts the current player's king in check
-            if (!isInCheckAfterMove(copyBoard, piece.getTeamColor())) {
-                validMoves.add(move);
+        ChessGame.TeamColor color = piece.getTeamColor();
+        MoveList possibleMoves = new MoveList(32);
+        int from = ChessBoard.square(startPosition.getRow(), startPosition.getColumn());
+        MoveGenerator.generatePieceMoves(board, color, piece.getPieceType(), from, possibleMoves);
+        Collection<ChessMove> validMoves = new ArrayList<>(possibleMoves.size());
+
+        for (int i = 0; i < possibleMoves.size(); i++) {
+            int move = possibleMoves.get(i);
+            // Play the move in place and take it back; no board copy per candidate
+            if (isLegal(move, color)) {
+                validMoves.add(PackedMove.toChessMove(move));
             }
-
-            // Undo move
-            copyBoard.addPiece(startPosition, piece);
-            copyBoard.addPiece(move.getEndPosition(), capturedPiece);
         }
 
         return validMoves;
     }
 
     /**
-     * Helper method to determine if the move leaves the player in check.
+     * Helper method to determine if a pseudo-legal move leaves the player's king safe.
      */
-    private boolean isInCheckAfterMove(ChessBoard tempBoard, TeamColor teamColor) {
-        ChessPosition kingPosition = findKingPosition(tempBoard, teamColor);
-        return chessChecker(tempBoard,kingPosition,teamColor);
+    private boolean isLegal(int move, TeamColor teamColor) {
+        board.makeMove(move);
+        boolean legal = !isInCheck(teamColor);
+        board.unmakeMove();
+        return legal;
     }
 
     /**
@@ -97,8 +256,6 @@ public class ChessGame {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
         ChessPosition startPosition = move.getStartPosition();
-        ChessPosition endPosition = move.getEndPosition();
-
         ChessPiece piece = board.getPiece(startPosition);
 
         if (piece == null) {
@@ -109,46 +266,123 @@ public class ChessGame {
             throw new InvalidMoveException("It's not the piece's turn.");
         }
 
-        Collection<ChessMove> validMoves = piece.pieceMoves(board, startPosition);
-        // Pawn Promotion
-        if (!validMoves.contains(move)) {
-            if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
-                int promotionRow = (teamTurn == TeamColor.WHITE) ? 8 : 1;
-                if (endPosition.getRow() != promotionRow) {
-                    throw new InvalidMoveException("The move is not valid.");
-                }
-
-            } else {
-                throw new InvalidMoveException("The move is not valid");
+        MoveList possibleMoves = new MoveList(32);
+        int from = ChessBoard.square(startPosition.getRow(), startPosition.getColumn());
+        MoveGenerator.generatePieceMoves(board, teamTurn, piece.getPieceType(), from, possibleMoves);
+
+        int packedMove = PackedMove.NONE;
+        boolean promotionMissing = false;
+        for (int i = 0; i < possibleMoves.size(); i++) {
+            int candidate = possibleMoves.get(i);
+            if (PackedMove.matches(candidate, move)) {
+                packedMove = candidate;
+                break;
+            }
+            if (PackedMove.isPromotion(candidate) && move.getPromotionPiece() == null
+                    && PackedMove.to(candidate) == ChessBoard.square(move.getEndPosition().getRow(), move.getEndPosition().getColumn())) {
+                promotionMissing = true;
             }
         }
 
-        // Handle pawn promotion and other moves
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            int promotionRow = (teamTurn == TeamColor.WHITE) ? 8 : 1;
-            if (endPosition.getRow() == promotionRow) {
-                ChessPiece.PieceType promotionPieceType = move.getPromotionPiece();
-                if (promotionPieceType == null) {
-                    throw new InvalidMoveException("Pawn promotion must specify a piece type.");
-                }
-                ChessPiece promotedPiece = new ChessPiece(teamTurn, promotionPieceType);
-                board.addPiece(endPosition, promotedPiece);
-                board.addPiece(startPosition, null);
-            } else {
-                board.addPiece(endPosition, piece);
-                board.addPiece(startPosition, null);
+        if (packedMove == PackedMove.NONE) {
+            if (promotionMissing) {
+                throw new InvalidMoveException("Pawn promotion must specify a piece type.");
             }
-        } else if (!isInCheck(teamTurn)){
-            board.addPiece(endPosition, piece);
-            board.addPiece(startPosition, null);
+            throw new InvalidMoveException("The move is not valid.");
         }
-        else {
+
+        if (!isLegal(packedMove, teamTurn)) {
             throw new InvalidMoveException("This move puts your king in check.");
         }
+        playMove(packedMove);
+    }
+
+    /**
+     * Plays a packed move that is already known to be legal for the team to move
+     */
+    void playMove(int move) {
+        if (plyCount == 0) {
+            // The history starts here; remember where, unless it is the usual start
+            String fen = toFen();
+            startFen = fen.equals(STANDARD_START_FEN) ? null : fen;
+            keyCount = 0;
+            pushPositionKey();
+        }
+        boolean keysValid = keyCount == plyCount + 1;
+        if (plyCount == moveHistory.length) {
+            moveHistory = Arrays.copyOf(moveHistory, Math.max(16, plyCount * 2));
+        }
+        moveHistory[plyCount++] = move;
+        board.makeMove(move);
 
         // Switch turn to the other team
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
         teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        status = null;
+        if (keysValid) {
+            pushPositionKey();
+        }
+    }
 
+    private void pushPositionKey() {
+        if (positionKeys == null || keyCount == positionKeys.length) {
+            positionKeys = Arrays.copyOf(positionKeys == null ? new long[0] : positionKeys, Math.max(16, keyCount * 2));
+        }
+        positionKeys[keyCount++] = zobristKey();
+    }
+
+    /**
+     * Counts how many times the current position (including the side to move, castling
+     * rights and en passant) has occurred in the game. Only positions since the last
+     * capture or pawn move can repeat, so only those are compared.
+     *
+     * @return the number of occurrences, at least 1
+     */
+    public int repetitionCount() {
+        if (keyCount != plyCount + 1) {
+            rebuildPositionKeys();
+        }
+        long key = positionKeys[plyCount];
+        int earliest = plyCount - Math.min(board.getHalfmoveClock(), plyCount);
+        int count = 1;
+        for (int ply = plyCount - 2; ply >= earliest; ply -= 2) {
+            if (positionKeys[ply] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the Zobrist keys of the positions since the last capture or pawn move, the only
+     * ones the current position can still repeat. A search uses these to score repetitions
+     * of earlier game positions as draws.
+     *
+     * @return the keys, oldest first, ending with the current position's key
+     */
+    public long[] getReversiblePositionKeys() {
+        if (keyCount != plyCount + 1) {
+            rebuildPositionKeys();
+        }
+        int earliest = plyCount - Math.min(board.getHalfmoveClock(), plyCount);
+        return Arrays.copyOfRange(positionKeys, earliest, plyCount + 1);
+    }
+
+    // Keys are not serialized, so games loaded from storage replay their history once
+    private void rebuildPositionKeys() {
+        if (plyCount == 0) {
+            keyCount = 0;
+            pushPositionKey();
+            return;
+        }
+        ChessGame replay = startFen == null ? new ChessGame() : fromFen(startFen);
+        for (int ply = 0; ply < plyCount; ply++) {
+            replay.playMove(moveHistory[ply]);
+        }
+        positionKeys = replay.positionKeys;
+        keyCount = replay.keyCount;
     }
 
     /**
@@ -158,45 +392,21 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = findKingPosition(board, teamColor);
-        return chessChecker(board,kingPosition,teamColor);
+        return board.isInCheck(teamColor);
     }
 
     public boolean chessChecker(ChessBoard board, ChessPosition kingPosition, TeamColor teamColor)  {
-        // Iterating through all pieces
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = board.getPiece(new ChessPosition(row + 1, col + 1));
-                if (piece != null && piece.getTeamColor() != teamColor) {
-                    if (piece.getTeamColor() != teamColor) {
-                        Collection<ChessMove> moves = piece.pieceMoves(board, new ChessPosition(row + 1, col + 1));
-                        for (ChessMove move : moves) {
-                            if (move.getEndPosition().equals(kingPosition)) {
-                                return true; // King is in check
-                            }
-                        }
-                    }
-                }
-            }
+        if (kingPosition == null) {
+            return false;
         }
-        return false; // King is not in check
+        TeamColor enemy = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        int kingSquare = ChessBoard.square(kingPosition.getRow(), kingPosition.getColumn());
+        return board.isSquareAttacked(kingSquare, enemy);
     }
 
     public ChessPosition findKingPosition(ChessBoard board, TeamColor teamColor) {
-        ChessPosition kingPosition = null;
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece piece = board.getPiece(new ChessPosition(row + 1, col + 1));
-                if (piece != null && piece.getTeamColor() == teamColor && piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    kingPosition = new ChessPosition(row + 1, col + 1);
-                    break;
-                }
-            }
-            if (kingPosition != null) {
-                break;
-            }
-        }
-        return kingPosition;
+        int kingSquare = board.kingSquare(teamColor);
+        return kingSquare < 0 ? null : PackedMove.position(kingSquare);
     }
 
     /**
@@ -206,29 +416,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        // Check if the team is in check
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-
-        // Iterate through all pieces of the team
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPosition startPosition = new ChessPosition(row + 1, col + 1);
-                ChessPiece piece = board.getPiece(startPosition);
-
-                // If the piece belongs to the specified team
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    // Check if there are any valid moves for this piece
-                    Collection<ChessMove> validMoves = validMoves(startPosition);
-                    if (validMoves.isEmpty() && isInCheck(teamColor)) {
-                        return true; // Team is not in checkmate if there are valid moves
-                    }
-                }
-            }
-        }
-
-        return false;
+        return statusFor(teamColor).isCheckmate();
     }
 
 
@@ -240,35 +428,62 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        // Check if the team is in check
-        if (isInCheck(teamColor)) {
-            return false;
+        return statusFor(teamColor).isStalemate();
+    }
+
+    // True when the team has no valid moves at all (shared by checkmate and stalemate)
+    public boolean stalemateCheckmate(TeamColor teamColor) {
+        return statusFor(teamColor).legalMoveCount() == 0;
+    }
+
+    /**
+     * Gets check, checkmate, stalemate, draws and the legal move count for the team to move,
+     * computed in a single pass over its moves. The result is cached until the position
+     * changes, so repeated status queries after a move cost one generation in total.
+     *
+     * @return the status of the team whose turn it is
+     */
+    public GameStatus status() {
+        long key = zobristKey();
+        if (status == null || statusKey != key) {
+            status = computeStatus(teamTurn);
+            statusKey = key;
         }
+        return status;
+    }
 
-        return stalemateCheckmate(teamColor);
+    private GameStatus statusFor(TeamColor teamColor) {
+        return teamColor == teamTurn ? status() : computeStatus(teamColor);
     }
 
-    //Logic is more different than I thought, so this will only work for stalemate
-    public boolean stalemateCheckmate(TeamColor teamColor) {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPosition startPosition = new ChessPosition(row + 1, col + 1);
-                ChessPiece piece = board.getPiece(startPosition);
-
-                // If the piece belongs to the correct color
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    // Check if there are any valid moves
-                    Collection<ChessMove> validMoves = validMoves(startPosition);
-                    if (!validMoves.isEmpty()) {
-                        return false; // No Valid Moves
-                    }
-                }
+    private GameStatus computeStatus(TeamColor teamColor) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateMoves(board, teamColor, moves);
+        int legalMoves = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (isLegal(moves.get(i), teamColor)) {
+                legalMoves++;
             }
         }
-        return true;
+        return new GameStatus(teamColor, board.isInCheck(teamColor), legalMoves,
+                legalMoves == 0 ? null : drawReason());
     }
 
 
+    // Checkmate and stalemate take precedence, so this is only asked when there are legal moves
+    private GameStatus.DrawReason drawReason() {
+        if (board.hasInsufficientMaterial()) {
+            return GameStatus.DrawReason.INSUFFICIENT_MATERIAL;
+        }
+        if (board.getHalfmoveClock() >= 100) {
+            return GameStatus.DrawReason.FIFTY_MOVE_RULE;
+        }
+        if (repetitionCount() >= 3) {
+            return GameStatus.DrawReason.THREEFOLD_REPETITION;
+        }
+        return null;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
@@ -276,6 +491,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        restartHistory();
     }
 
     /**
@@ -296,6 +512,17 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board);
+        return 31 * board.hashCode() + Objects.hashCode(teamTurn);
+    }
+
+    /**
+     * Gets the Zobrist key of the current position, including the side to move. Keys are
+     * maintained incrementally as moves are made, so this is cheap enough to call per move
+     * for caching and repetition detection.
+     *
+     * @return the 64-bit Zobrist key
+     */
+    public long zobristKey() {
+        return board.zobristKey() ^ Zobrist.sideToMove(teamTurn);
     }
 }
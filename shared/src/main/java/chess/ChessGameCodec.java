@@ -0,0 +1,112 @@
+package chess;
+
+/**
+ * Compact binary encoding of a {@link ChessGame} snapshot, as an alternative to the
+ * Gson form for database rows and LoadGame messages. Version 1 is 40 bytes:
+ * <pre>
+ *  0      magic byte 0xC5
+ *  1      format version
+ *  2-33   board, 4 bits per square from a1 to h8, low nibble first
+ *         (0 = empty, otherwise {@link ChessBoard#pieceIndex} + 1)
+ *  34     bit 0: black to move, bits 1-4: castling rights
+ *  35     en passant square + 1 (0 = none)
+ *  36-37  halfmove clock, big-endian
+ *  38-39  fullmove number, big-endian
+ * </pre>
+ */
+public final class ChessGameCodec {
+    public static final int VERSION = 1;
+    public static final int ENCODED_LENGTH = 40;
+
+    private static final byte MAGIC = (byte) 0xC5;
+    private static final int BOARD_OFFSET = 2;
+    private static final int STATE_OFFSET = BOARD_OFFSET + 32;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+
+    private ChessGameCodec() {
+    }
+
+    /**
+     * @return the encoded snapshot of the game's current position and move counters
+     */
+    public static byte[] encode(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        byte[] bytes = new byte[ENCODED_LENGTH];
+        bytes[0] = MAGIC;
+        bytes[1] = VERSION;
+        for (int square = 0; square < 64; square++) {
+            int nibble = board.pieceIndexAt(square) + 1;
+            bytes[BOARD_OFFSET + square / 2] |= (byte) (square % 2 == 0 ? nibble : nibble << 4);
+        }
+
+        int state = STATE_OFFSET;
+        boolean blackToMove = game.getTeamTurn() == ChessGame.TeamColor.BLACK;
+        bytes[state] = (byte) ((blackToMove ? 1 : 0) | board.getCastlingRights() << 1);
+        bytes[state + 1] = (byte) (board.getEnPassantSquare() + 1);
+        writeShort(bytes, state + 2, board.getHalfmoveClock());
+        writeShort(bytes, state + 4, game.getFullmoveNumber());
+        return bytes;
+    }
+
+    /**
+     * @return a new game set up from an encoded snapshot
+     * @throws IllegalArgumentException if the bytes are not a snapshot in a supported version
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes == null || bytes.length < 2 || bytes[0] != MAGIC) {
+            throw new IllegalArgumentException("Not an encoded chess game");
+        }
+        if (bytes[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported chess game encoding version " + bytes[1]);
+        }
+        if (bytes.length != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Encoded chess game must be " + ENCODED_LENGTH + " bytes");
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int packed = bytes[BOARD_OFFSET + square / 2];
+            int nibble = (square % 2 == 0 ? packed : packed >>> 4) & 0xF;
+            if (nibble > 12) {
+                throw new IllegalArgumentException("Invalid piece code " + nibble + " on square " + square);
+            }
+            if (nibble != 0) {
+                int index = nibble - 1;
+                board.addPiece(PackedMove.position(square), ChessPiece.of(COLORS[index / 6], TYPES[index % 6]));
+            }
+        }
+
+        int state = STATE_OFFSET;
+        board.setCastlingRights((bytes[state] >>> 1) & 0xF);
+        int enPassant = (bytes[state + 1] & 0xFF) - 1;
+        if (enPassant >= 64) {
+            throw new IllegalArgumentException("Invalid en passant square " + enPassant);
+        }
+        board.setEnPassantSquare(enPassant);
+        board.setHalfmoveClock(readShort(bytes, state + 2));
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn((bytes[state] & 1) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setFullmoveNumber(readShort(bytes, state + 4));
+        return game;
+    }
+
+    /**
+     * @return true if the bytes start with this codec's header, in any version
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length >= 2 && bytes[0] == MAGIC;
+    }
+
+    private static void writeShort(byte[] bytes, int offset, int value) {
+        int clamped = Math.min(value, 0xFFFF);
+        bytes[offset] = (byte) (clamped >>> 8);
+        bytes[offset + 1] = (byte) clamped;
+    }
+
+    private static int readShort(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 8 | (bytes[offset + 1] & 0xFF);
+    }
+}
@@ -0,0 +1,269 @@
+package chess;
+
+/**
+ * Forsyth-Edwards Notation reading and writing. The parser walks the string by index
+ * and reports the first problem it finds with an {@link IllegalArgumentException}.
+ * Trailing fields may be left off (as in EPD and most test suites): missing castling
+ * and en passant fields mean none, and missing clocks mean 0 and 1.
+ */
+final class Fen {
+    private static final String PIECE_LETTERS = "KQBNRPkqbnrp";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final char[] CASTLING_LETTERS = {'K', 'Q', 'k', 'q'};
+    private static final int[] CASTLING_FLAGS = {
+            ChessBoard.WHITE_KINGSIDE, ChessBoard.WHITE_QUEENSIDE,
+            ChessBoard.BLACK_KINGSIDE, ChessBoard.BLACK_QUEENSIDE
+    };
+
+    private final String fen;
+    private int index;
+
+    private Fen(String fen) {
+        this.fen = fen;
+    }
+
+    static ChessGame parseGame(String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("FEN is null");
+        }
+        Fen parser = new Fen(fen);
+        parser.skipSpaces();
+        ChessBoard board = parser.placement();
+
+        ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+        board.setCastlingRights(0);
+        int fullmoveNumber = 1;
+        if (parser.nextField()) {
+            turn = parser.sideToMove();
+        }
+        if (parser.nextField()) {
+            board.setCastlingRights(parser.castling());
+        }
+        if (parser.nextField()) {
+            board.setEnPassantSquare(parser.enPassant());
+        }
+        if (parser.nextField()) {
+            int halfmoveClock = parser.number("halfmove clock");
+            if (halfmoveClock > ChessBoard.MAX_HALFMOVE_CLOCK) {
+                throw new IllegalArgumentException("FEN halfmove clock must be at most "
+                        + ChessBoard.MAX_HALFMOVE_CLOCK + ": " + fen);
+            }
+            board.setHalfmoveClock(halfmoveClock);
+        }
+        if (parser.nextField()) {
+            fullmoveNumber = parser.number("fullmove number");
+            if (fullmoveNumber < 1) {
+                throw new IllegalArgumentException("FEN fullmove number must be at least 1: " + fen);
+            }
+        }
+        if (parser.nextField()) {
+            throw parser.error("unexpected trailing field");
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setFullmoveNumber(fullmoveNumber);
+        return game;
+    }
+
+    static ChessBoard parsePlacement(String placement) {
+        if (placement == null) {
+            throw new IllegalArgumentException("FEN is null");
+        }
+        Fen parser = new Fen(placement);
+        ChessBoard board = parser.placement();
+        if (parser.index != placement.length()) {
+            throw parser.error("unexpected text after piece placement");
+        }
+        return board;
+    }
+
+    static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+        appendPlacement(board, fen);
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.BLACK ? " b " : " w ");
+
+        int rights = board.getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        }
+        for (int i = 0; i < CASTLING_FLAGS.length; i++) {
+            if ((rights & CASTLING_FLAGS[i]) != 0) {
+                fen.append(CASTLING_LETTERS[i]);
+            }
+        }
+
+        int enPassant = board.getEnPassantSquare();
+        fen.append(' ');
+        if (enPassant < 0) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + enPassant % 8)).append((char) ('1' + enPassant / 8));
+        }
+        return fen.append(' ').append(board.getHalfmoveClock())
+                .append(' ').append(game.getFullmoveNumber())
+                .toString();
+    }
+
+    static String formatPlacement(ChessBoard board) {
+        StringBuilder fen = new StringBuilder(72);
+        appendPlacement(board, fen);
+        return fen.toString();
+    }
+
+    private static void appendPlacement(ChessBoard board, StringBuilder fen) {
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = board.pieceIndexAt(rank * 8 + file);
+                if (piece < 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(PIECE_LETTERS.charAt(piece));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+    }
+
+    private ChessBoard placement() {
+        ChessBoard board = new ChessBoard();
+        int rank = 7;
+        int file = 0;
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            char c = fen.charAt(index);
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    throw error("rank " + (rank + 1) + " does not have 8 squares");
+                }
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) {
+                    throw error("rank " + (rank + 1) + " has more than 8 squares");
+                }
+            } else {
+                int piece = PIECE_LETTERS.indexOf(c);
+                if (piece < 0) {
+                    throw error("unknown piece '" + c + "'");
+                }
+                if (file >= 8) {
+                    throw error("rank " + (rank + 1) + " has more than 8 squares");
+                }
+                board.addPiece(PackedMove.position(rank * 8 + file),
+                        ChessPiece.of(COLORS[piece / 6], TYPES[piece % 6]));
+                file++;
+            }
+            index++;
+        }
+        if (rank != 0 || file != 8) {
+            throw error("piece placement does not cover 8 ranks of 8 squares");
+        }
+        return board;
+    }
+
+    private ChessGame.TeamColor sideToMove() {
+        char c = fen.charAt(index++);
+        if (c != 'w' && c != 'b') {
+            throw error("side to move must be 'w' or 'b'");
+        }
+        endOfField();
+        return c == 'w' ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    private int castling() {
+        if (fen.charAt(index) == '-') {
+            index++;
+            endOfField();
+            return 0;
+        }
+        int rights = 0;
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            int flag = -1;
+            for (int i = 0; i < CASTLING_LETTERS.length; i++) {
+                if (fen.charAt(index) == CASTLING_LETTERS[i]) {
+                    flag = CASTLING_FLAGS[i];
+                }
+            }
+            if (flag < 0 || (rights & flag) != 0) {
+                throw error("invalid castling rights");
+            }
+            rights |= flag;
+            index++;
+        }
+        return rights;
+    }
+
+    private int enPassant() {
+        if (fen.charAt(index) == '-') {
+            index++;
+            endOfField();
+            return -1;
+        }
+        if (index + 1 >= fen.length()) {
+            throw error("invalid en passant square");
+        }
+        char file = fen.charAt(index);
+        char rank = fen.charAt(index + 1);
+        if (file < 'a' || file > 'h' || (rank != '3' && rank != '6')) {
+            throw error("invalid en passant square");
+        }
+        index += 2;
+        endOfField();
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    private int number(String field) {
+        int value = 0;
+        int start = index;
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            char c = fen.charAt(index++);
+            if (c < '0' || c > '9' || value > 100_000) {
+                throw error("invalid " + field);
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (index == start) {
+            throw error("missing " + field);
+        }
+        return value;
+    }
+
+    // Moves past the spaces before the next field; false if the string has ended
+    private boolean nextField() {
+        if (index < fen.length() && fen.charAt(index) != ' ') {
+            throw error("fields must be separated by spaces");
+        }
+        skipSpaces();
+        return index < fen.length();
+    }
+
+    private void skipSpaces() {
+        while (index < fen.length() && fen.charAt(index) == ' ') {
+            index++;
+        }
+    }
+
+    private void endOfField() {
+        if (index < fen.length() && fen.charAt(index) != ' ') {
+            throw error("unexpected '" + fen.charAt(index) + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String problem) {
+        return new IllegalArgumentException("Invalid FEN at index " + index + ", " + problem + ": " + fen);
+    }
+}
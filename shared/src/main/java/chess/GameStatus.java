@@ -0,0 +1,61 @@
+package chess;
+
+/**
+ * The state of a game for the team to move, computed in one pass over its legal moves
+ *
+ * @param teamToMove the team whose turn it is
+ * @param inCheck whether that team's king is attacked
+ * @param legalMoveCount how many legal moves that team has
+ * @param drawReason why the game is drawn, or null if it is not (stalemate is reported
+ *                   separately by {@link #isStalemate()})
+ */
+public record GameStatus(ChessGame.TeamColor teamToMove, boolean inCheck, int legalMoveCount, DrawReason drawReason) {
+
+    /**
+     * Draws detected from the position and its history
+     */
+    public enum DrawReason {
+        THREEFOLD_REPETITION("threefold repetition"),
+        FIFTY_MOVE_RULE("the fifty-move rule"),
+        INSUFFICIENT_MATERIAL("insufficient material");
+
+        private final String description;
+
+        DrawReason(String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
+    /**
+     * @return True if the team to move is in check with no legal moves
+     */
+    public boolean isCheckmate() {
+        return inCheck && legalMoveCount == 0;
+    }
+
+    /**
+     * @return True if the team to move is not in check but has no legal moves
+     */
+    public boolean isStalemate() {
+        return !inCheck && legalMoveCount == 0;
+    }
+
+    /**
+     * @return True if the game is drawn by repetition, the fifty-move rule or insufficient material
+     */
+    public boolean isDraw() {
+        return drawReason != null;
+    }
+
+    /**
+     * @return True if the game cannot continue
+     */
+    public boolean isGameOver() {
+        return legalMoveCount == 0 || drawReason != null;
+    }
+}
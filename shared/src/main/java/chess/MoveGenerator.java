@@ -0,0 +1,191 @@
+package chess;
+
+/**
+ * Generates pseudo-legal moves (moves that may still leave the king in check)
+ * straight from the board's bitboards into a caller-owned {@link MoveList}.
+ * Nothing here allocates; moves are packed ints (see {@link PackedMove}).
+ * <p>
+ * Castling and en passant come from the board's stored castling rights and en passant
+ * square. Castles are fully checked here (the king may not start in, pass through or
+ * land on an attacked square), so callers only need the usual king-safety test.
+ */
+public final class MoveGenerator {
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Appends every pseudo-legal move for the given team to the list
+     */
+    public static void generateMoves(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        for (ChessPiece.PieceType type : TYPES) {
+            long pieces = board.getBitboard(color, type);
+            while (pieces != 0) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                generatePieceMoves(board, color, type, from, moves);
+            }
+        }
+    }
+
+    /**
+     * Appends the pseudo-legal captures and promotions for the given team, the moves a
+     * quiescence search looks at
+     */
+    public static void generateCaptures(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        ChessGame.TeamColor enemyColor = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long enemy = board.getOccupancy(enemyColor);
+        long occupied = board.getOccupied();
+        for (ChessPiece.PieceType type : TYPES) {
+            long pieces = board.getBitboard(color, type);
+            while (pieces != 0) {
+                int from = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                long targets = switch (type) {
+                    case PAWN -> {
+                        generatePawnCaptures(board, color, from, moves);
+                        yield 0L;
+                    }
+                    case KNIGHT -> Bitboards.knightAttacks(from);
+                    case KING -> Bitboards.kingAttacks(from);
+                    case BISHOP -> Bitboards.bishopAttacks(from, occupied);
+                    case ROOK -> Bitboards.rookAttacks(from, occupied);
+                    case QUEEN -> Bitboards.queenAttacks(from, occupied);
+                };
+                addTargets(from, targets & enemy, occupied, moves);
+            }
+        }
+    }
+
+    /**
+     * Appends the pseudo-legal moves of a piece of the given color and type standing on a square
+     */
+    public static void generatePieceMoves(ChessBoard board, ChessGame.TeamColor color,
+                                          ChessPiece.PieceType type, int from, MoveList moves) {
+        long own = board.getOccupancy(color);
+        long occupied = board.getOccupied();
+        long targets = switch (type) {
+            case PAWN -> {
+                generatePawnMoves(board, color, from, moves);
+                yield 0L;
+            }
+            case KNIGHT -> Bitboards.knightAttacks(from);
+            case KING -> {
+                generateCastles(board, color, from, moves);
+                yield Bitboards.kingAttacks(from);
+            }
+            case BISHOP -> Bitboards.bishopAttacks(from, occupied);
+            case ROOK -> Bitboards.rookAttacks(from, occupied);
+            case QUEEN -> Bitboards.queenAttacks(from, occupied);
+        };
+        addTargets(from, targets & ~own, occupied, moves);
+    }
+
+    private static void generatePawnMoves(ChessBoard board, ChessGame.TeamColor color, int from, MoveList moves) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        int startRank = white ? 1 : 6;
+        int promotionRank = white ? 7 : 0;
+        long occupied = board.getOccupied();
+        long enemy = board.getOccupancy(white ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+
+        int oneStep = from + forward;
+        if (oneStep >= 0 && oneStep < 64 && (occupied & (1L << oneStep)) == 0) {
+            addPawnMove(from, oneStep, 0, promotionRank, moves);
+            int twoStep = oneStep + forward;
+            if (from / 8 == startRank && (occupied & (1L << twoStep)) == 0) {
+                moves.add(PackedMove.encode(from, twoStep, null, PackedMove.DOUBLE_PUSH));
+            }
+        }
+
+        long captures = Bitboards.pawnAttacks(color, from) & enemy;
+        while (captures != 0) {
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            addPawnMove(from, to, PackedMove.CAPTURE, promotionRank, moves);
+        }
+
+        // The en passant square is only ever set behind an enemy pawn, on the 6th rank from our side
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant >= 0 && enPassant / 8 == (white ? 5 : 2)
+                && (Bitboards.pawnAttacks(color, from) & (1L << enPassant)) != 0) {
+            moves.add(PackedMove.encode(from, enPassant, null, PackedMove.CAPTURE | PackedMove.EN_PASSANT));
+        }
+    }
+
+    private static void generatePawnCaptures(ChessBoard board, ChessGame.TeamColor color, int from, MoveList moves) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int promotionRank = white ? 7 : 0;
+        int oneStep = from + (white ? 8 : -8);
+        if (oneStep >= 0 && oneStep < 64 && oneStep / 8 == promotionRank
+                && (board.getOccupied() & (1L << oneStep)) == 0) {
+            addPawnMove(from, oneStep, 0, promotionRank, moves);
+        }
+        long enemy = board.getOccupancy(white ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        long captures = Bitboards.pawnAttacks(color, from) & enemy;
+        while (captures != 0) {
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            addPawnMove(from, to, PackedMove.CAPTURE, promotionRank, moves);
+        }
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant >= 0 && enPassant / 8 == (white ? 5 : 2)
+                && (Bitboards.pawnAttacks(color, from) & (1L << enPassant)) != 0) {
+            moves.add(PackedMove.encode(from, enPassant, null, PackedMove.CAPTURE | PackedMove.EN_PASSANT));
+        }
+    }
+
+    private static void generateCastles(ChessBoard board, ChessGame.TeamColor color, int from, MoveList moves) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int home = white ? 4 : 60;
+        int rights = board.getCastlingRights() & (white
+                ? ChessBoard.WHITE_KINGSIDE | ChessBoard.WHITE_QUEENSIDE
+                : ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE);
+        if (from != home || rights == 0) {
+            return;
+        }
+        ChessGame.TeamColor enemy = white ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        if (board.isSquareAttacked(home, enemy)) {
+            return;
+        }
+        long occupied = board.getOccupied();
+        long rooks = board.getBitboard(color, ChessPiece.PieceType.ROOK);
+
+        int kingside = white ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE;
+        if ((rights & kingside) != 0 && (rooks & (1L << (home + 3))) != 0
+                && (occupied & (0b11L << (home + 1))) == 0
+                && !board.isSquareAttacked(home + 1, enemy) && !board.isSquareAttacked(home + 2, enemy)) {
+            moves.add(PackedMove.encode(home, home + 2, null, PackedMove.CASTLE));
+        }
+        int queenside = white ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE;
+        if ((rights & queenside) != 0 && (rooks & (1L << (home - 4))) != 0
+                && (occupied & (0b111L << (home - 3))) == 0
+                && !board.isSquareAttacked(home - 1, enemy) && !board.isSquareAttacked(home - 2, enemy)) {
+            moves.add(PackedMove.encode(home, home - 2, null, PackedMove.CASTLE));
+        }
+    }
+
+    private static void addPawnMove(int from, int to, int flags, int promotionRank, MoveList moves) {
+        if (to / 8 == promotionRank) {
+            for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                moves.add(PackedMove.encode(from, to, promotion, flags));
+            }
+        } else {
+            moves.add(PackedMove.encode(from, to, null, flags));
+        }
+    }
+
+    private static void addTargets(int from, long targets, long occupied, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            long bit = targets & -targets;
+            targets &= targets - 1;
+            moves.add(PackedMove.encode(from, to, null, (occupied & bit) != 0 ? PackedMove.CAPTURE : 0));
+        }
+    }
+}
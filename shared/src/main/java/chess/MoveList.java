@@ -0,0 +1,54 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of packed moves (see {@link PackedMove}). Callers keep one
+ * list per search ply and {@link #clear()} it instead of allocating new collections.
+ */
+public class MoveList {
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(256);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from the given index on, e.g. after filtering the list in place
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,105 @@
+package chess;
+
+/**
+ * Helpers for moves packed into a single {@code int}, used by the move generator
+ * so the inner loops never allocate {@link ChessMove} objects.
+ * <p>
+ * Layout: bits 0-5 start square, bits 6-11 end square, bits 12-14 promotion
+ * piece ({@code PieceType.ordinal() + 1}, 0 for none), bits 15+ flags.
+ * Squares are numbered 0 = a1 through 63 = h8.
+ */
+public final class PackedMove {
+    public static final int NONE = 0;
+
+    // The squares and promotion, which identify a move without its flags
+    public static final int MOVE_BITS = (1 << 15) - 1;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int EN_PASSANT = 1 << 17;
+    public static final int CASTLE = 1 << 18;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            POSITIONS[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
+    private PackedMove() {
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << 12) | flags;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the promotion piece type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int bits = (move >>> 12) & 0x7;
+        return bits == 0 ? null : TYPES[bits - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (0x7 << 12)) != 0;
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * @return the shared position object for a square index
+     */
+    public static ChessPosition position(int square) {
+        return POSITIONS[square];
+    }
+
+    /**
+     * Packs a {@link ChessMove}'s squares and promotion, without flags
+     */
+    public static int fromChessMove(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        return encode(ChessBoard.square(start.getRow(), start.getColumn()),
+                ChessBoard.square(end.getRow(), end.getColumn()), move.getPromotionPiece(), 0);
+    }
+
+    /**
+     * @return true if the value is a move's squares and a valid promotion, with no flags,
+     * as produced by {@link #fromChessMove}
+     */
+    public static boolean isUnflagged(int move) {
+        return (move & ~MOVE_BITS) == 0 && (move >>> 12) <= TYPES.length;
+    }
+
+    /**
+     * Materializes a packed move as a {@link ChessMove} for the public API
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(POSITIONS[from(move)], POSITIONS[to(move)], promotion(move));
+    }
+
+    /**
+     * @return true if the packed move has the same squares and promotion as the given move
+     */
+    public static boolean matches(int move, ChessMove chessMove) {
+        ChessPosition start = chessMove.getStartPosition();
+        ChessPosition end = chessMove.getEndPosition();
+        return from(move) == ChessBoard.square(start.getRow(), start.getColumn())
+                && to(move) == ChessBoard.square(end.getRow(), end.getColumn())
+                && promotion(move) == chessMove.getPromotionPiece();
+    }
+}
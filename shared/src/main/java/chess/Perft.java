@@ -0,0 +1,304 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft (performance test): counts every leaf node of the legal move tree to a
+ * fixed depth. Counts from standard positions have well-known reference values, so
+ * this doubles as a correctness check for the move generator and as its main
+ * throughput benchmark.
+ * <p>
+ * Counts can be split across a {@link ForkJoinPool}: each root move becomes a task
+ * with its own board copy and move buffers, and the per-task {@link Stats} are merged.
+ * <p>
+ * Run with {@code mvn -pl shared exec:java -Dexec.mainClass=chess.Perft [-Dexec.args="depth threads"]}.
+ */
+public class Perft {
+
+    /**
+     * A perft position with its reference node counts, where {@code expected[d - 1]} is
+     * the count at depth {@code d}
+     */
+    public record Position(String name, String fen, long... expected) {
+        public int maxDepth() {
+            return expected.length;
+        }
+    }
+
+    public static final List<Position> STANDARD_POSITIONS = List.of(
+            new Position("Start position", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                    20, 400, 8_902, 197_281),
+            new Position("Kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48, 2_039, 97_862),
+            new Position("Position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2_812, 43_238, 674_624),
+            new Position("Position 4", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9_467, 422_333),
+            new Position("Position 5", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1_486, 62_379),
+            new Position("Position 6", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2_079, 89_890)
+    );
+
+    /**
+     * Leaf node statistics, in the categories published alongside reference perft counts
+     */
+    public static class Stats {
+        public long nodes;
+        public long captures;
+        public long enPassant;
+        public long castles;
+        public long promotions;
+        public long checks;
+
+        public void add(Stats other) {
+            nodes += other.nodes;
+            captures += other.captures;
+            enPassant += other.enPassant;
+            castles += other.castles;
+            promotions += other.promotions;
+            checks += other.checks;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("nodes=%,d captures=%,d enPassant=%,d castles=%,d promotions=%,d checks=%,d",
+                    nodes, captures, enPassant, castles, promotions, checks);
+        }
+    }
+
+    private final MoveList[] buffers;
+
+    /**
+     * @param maxDepth the deepest count this instance will be asked for
+     */
+    public Perft(int maxDepth) {
+        buffers = new MoveList[maxDepth + 1];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree below the current position
+     *
+     * @param board the position; it is restored before returning
+     * @param side the team to move
+     * @param depth plies to search
+     * @return the number of leaf nodes
+     */
+    public long count(ChessBoard board, ChessGame.TeamColor side, int depth) {
+        return search(board, side, depth, null);
+    }
+
+    /**
+     * Counts the leaf nodes below the current position, classifying each leaf move
+     *
+     * @param board the position; it is restored before returning
+     * @param side the team to move
+     * @param depth plies to search, at least 1
+     * @return the leaf statistics
+     */
+    public Stats countWithStats(ChessBoard board, ChessGame.TeamColor side, int depth) {
+        Stats stats = new Stats();
+        search(board, side, depth, stats);
+        return stats;
+    }
+
+    private long search(ChessBoard board, ChessGame.TeamColor side, int depth, Stats stats) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = buffers[depth];
+        moves.clear();
+        MoveGenerator.generateMoves(board, side, moves);
+
+        ChessGame.TeamColor other = opponent(side);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            if (!board.isInCheck(side)) {
+                if (depth > 1) {
+                    nodes += search(board, other, depth - 1, stats);
+                } else {
+                    nodes++;
+                    if (stats != null) {
+                        recordLeaf(board, other, move, stats);
+                    }
+                }
+            }
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private static void recordLeaf(ChessBoard board, ChessGame.TeamColor other, int move, Stats stats) {
+        stats.nodes++;
+        if (PackedMove.hasFlag(move, PackedMove.CAPTURE)) {
+            stats.captures++;
+        }
+        if (PackedMove.hasFlag(move, PackedMove.EN_PASSANT)) {
+            stats.enPassant++;
+        }
+        if (PackedMove.hasFlag(move, PackedMove.CASTLE)) {
+            stats.castles++;
+        }
+        if (PackedMove.isPromotion(move)) {
+            stats.promotions++;
+        }
+        if (board.isInCheck(other)) {
+            stats.checks++;
+        }
+    }
+
+    /**
+     * Counts the leaf nodes below a game's position on a fork-join pool, one task per legal
+     * root move. The game itself is not modified.
+     *
+     * @param game the position and side to move
+     * @param depth plies to search, at least 1
+     * @param pool the pool to run on
+     * @return the merged leaf statistics
+     */
+    public static Stats countParallel(ChessGame game, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PositionTask(new ChessBoard(game.getBoard()), game.getTeamTurn(), depth));
+    }
+
+    /**
+     * Counts many positions to the same depth on a fork-join pool, e.g. to validate a
+     * batch of stored games. Positions and their root moves are all split into tasks.
+     *
+     * @return the statistics for each game, in the same order
+     */
+    public static List<Stats> countAll(List<ChessGame> games, int depth, ForkJoinPool pool) {
+        return pool.invoke(new RecursiveTask<>() {
+            @Override
+            protected List<Stats> compute() {
+                List<PositionTask> tasks = new ArrayList<>(games.size());
+                for (ChessGame game : games) {
+                    tasks.add(new PositionTask(new ChessBoard(game.getBoard()), game.getTeamTurn(), depth));
+                }
+                invokeAll(tasks);
+                List<Stats> results = new ArrayList<>(tasks.size());
+                for (PositionTask task : tasks) {
+                    results.add(task.join());
+                }
+                return results;
+            }
+        });
+    }
+
+    // Splits a position into one subtask per legal root move
+    private static class PositionTask extends RecursiveTask<Stats> {
+        private final ChessBoard board;
+        private final ChessGame.TeamColor side;
+        private final int depth;
+
+        private PositionTask(ChessBoard board, ChessGame.TeamColor side, int depth) {
+            this.board = board;
+            this.side = side;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (depth <= 1) {
+                return new Perft(depth).countWithStats(board, side, depth);
+            }
+            MoveList moves = new MoveList();
+            MoveGenerator.generateMoves(board, side, moves);
+            List<RootMoveTask> tasks = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                ChessBoard child = new ChessBoard(board);
+                child.makeMove(moves.get(i));
+                if (!child.isInCheck(side)) {
+                    tasks.add(new RootMoveTask(child, opponent(side), depth - 1));
+                }
+            }
+            invokeAll(tasks);
+            Stats stats = new Stats();
+            for (RootMoveTask task : tasks) {
+                stats.add(task.join());
+            }
+            return stats;
+        }
+    }
+
+    // Counts the subtree below one root move with its own board copy and move buffers
+    private static class RootMoveTask extends RecursiveTask<Stats> {
+        private final ChessBoard board;
+        private final ChessGame.TeamColor side;
+        private final int depth;
+
+        private RootMoveTask(ChessBoard board, ChessGame.TeamColor side, int depth) {
+            this.board = board;
+            this.side = side;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Stats compute() {
+            return new Perft(depth).countWithStats(board, side, depth);
+        }
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor side) {
+        return side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    /**
+     * Counts the leaf nodes below a standard position
+     */
+    public long count(Position position, int depth) {
+        ChessGame game = load(position);
+        return count(game.getBoard(), game.getTeamTurn(), depth);
+    }
+
+    /**
+     * @return a game set up at the given standard position
+     */
+    public static ChessGame load(Position position) {
+        return ChessGame.fromFen(position.fen());
+    }
+
+    /**
+     * Runs every standard position to its deepest reference depth (or the depth given as
+     * the first argument), printing counts, nodes per second and whether they match. A
+     * second argument greater than 1 runs each count on a fork-join pool of that many threads.
+     */
+    public static void main(String[] args) {
+        int depthLimit = args.length > 0 ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        boolean allPassed = true;
+        for (Position position : STANDARD_POSITIONS) {
+            int depth = Math.min(depthLimit, position.maxDepth());
+            long start = System.nanoTime();
+            long nodes;
+            if (pool != null) {
+                Stats stats = countParallel(load(position), depth, pool);
+                nodes = stats.nodes;
+                System.out.println(position.name() + ": " + stats);
+            } else {
+                nodes = new Perft(depth).count(position, depth);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long expected = position.expected()[depth - 1];
+            boolean passed = nodes == expected;
+            allPassed &= passed;
+            System.out.printf("%-16s depth %d: %,d nodes (expected %,d) %s  %.3f s, %,.0f nodes/s%n",
+                    position.name(), depth, nodes, expected, passed ? "OK" : "MISMATCH",
+                    seconds, nodes / Math.max(seconds, 1e-9));
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (!allPassed) {
+            System.exit(1);
+        }
+    }
+}
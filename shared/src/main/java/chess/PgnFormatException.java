@@ -0,0 +1,14 @@
+package chess;
+
+import java.io.IOException;
+
+/**
+ * Indicates a game in a PGN stream could not be read. The reader has already skipped
+ * past the game, so reading can continue with the next one.
+ */
+public class PgnFormatException extends IOException {
+
+    public PgnFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,141 @@
+package chess;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game of a PGN file: its tag pairs, its moves from the starting position (the
+ * standard one unless a "FEN" tag is present) and its result. The moves live in the
+ * move history of the game's {@link ChessGame}, which is kept at the position after the
+ * last move.
+ */
+public class PgnGame {
+    public static final String WHITE_WINS = "1-0";
+    public static final String BLACK_WINS = "0-1";
+    public static final String DRAW = "1/2-1/2";
+    public static final String UNKNOWN = "*";
+
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private ChessGame game;
+    private String result = UNKNOWN;
+
+    /**
+     * Creates an empty game from the standard starting position
+     */
+    public PgnGame() {
+        this.game = new ChessGame();
+    }
+
+    /**
+     * Creates an empty game from a position given in FEN
+     *
+     * @throws IllegalArgumentException if the FEN is not valid
+     */
+    public PgnGame(String startFen) {
+        this.game = ChessGame.fromFen(startFen);
+        tags.put("SetUp", "1");
+        tags.put("FEN", startFen);
+    }
+
+    /**
+     * Plays a move from the current position and records it
+     *
+     * @throws InvalidMoveException if the move is not legal
+     */
+    public void addMove(ChessMove move) throws InvalidMoveException {
+        int packed = PackedMove.NONE;
+        ChessGame.TeamColor side = game.getTeamTurn();
+        ChessBoard board = game.getBoard();
+        MoveList candidates = new MoveList(64);
+        MoveGenerator.generateMoves(board, side, candidates);
+        for (int i = 0; i < candidates.size() && packed == PackedMove.NONE; i++) {
+            if (PackedMove.matches(candidates.get(i), move)) {
+                packed = candidates.get(i);
+            }
+        }
+        if (packed == PackedMove.NONE) {
+            throw new InvalidMoveException("The move is not valid.");
+        }
+        board.makeMove(packed);
+        boolean legal = !board.isInCheck(side);
+        board.unmakeMove();
+        if (!legal) {
+            throw new InvalidMoveException("This move puts your king in check.");
+        }
+        addPacked(packed);
+    }
+
+    // Records a move already known to be legal in the current position
+    void addPacked(int move) {
+        game.playMove(move);
+    }
+
+    // Sets the starting position from the FEN tag, if any, once the tags have been read
+    void setUpFromTags() {
+        String fen = tags.get("FEN");
+        game = fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+    }
+
+    /**
+     * @return the starting position in FEN, or null for the standard starting position
+     */
+    public String getStartFen() {
+        return tags.get("FEN");
+    }
+
+    /**
+     * @return the value of a tag, or null if the game does not have it
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public void setTag(String name, String value) {
+        tags.put(name, value);
+    }
+
+    /**
+     * @return every tag pair in the order they were read or set
+     */
+    public Map<String, String> getTags() {
+        return Collections.unmodifiableMap(tags);
+    }
+
+    /**
+     * @return one of {@link #WHITE_WINS}, {@link #BLACK_WINS}, {@link #DRAW} or {@link #UNKNOWN}
+     */
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    /**
+     * @return the moves in the order they were played
+     */
+    public List<ChessMove> getMoves() {
+        return game.getMoveHistory();
+    }
+
+    /**
+     * @return the number of half-moves in the game
+     */
+    public int getPlyCount() {
+        return game.getPlyCount();
+    }
+
+    int getPacked(int ply) {
+        return game.getPackedMove(ply);
+    }
+
+    /**
+     * @return the position after the last move; later calls to {@link #addMove} keep updating it
+     */
+    public ChessGame getGame() {
+        return game;
+    }
+}
@@ -0,0 +1,236 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads games one at a time from a PGN stream. Input is consumed through a fixed-size
+ * buffer and only the current game is held in memory, so files of any size can be
+ * imported. Every move is checked for legality as it is read; comments, variations
+ * and numeric annotation glyphs are skipped.
+ */
+public class PgnReader implements Closeable {
+    private static final int EOF = -1;
+    private static final String[] RESULTS = {PgnGame.WHITE_WINS, PgnGame.BLACK_WINS, PgnGame.DRAW, PgnGame.UNKNOWN};
+
+    private final Reader in;
+    private final char[] buffer = new char[1 << 16];
+    private int position;
+    private int limit;
+    private final StringBuilder token = new StringBuilder(32);
+    private final San san = new San();
+    private int gamesRead;
+
+    public PgnReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return the game, or null at the end of the stream
+     * @throws PgnFormatException if the game is malformed or has an illegal move; the
+     *                            stream is left at the start of the following game
+     * @throws IOException        if reading fails
+     */
+    public PgnGame next() throws IOException {
+        if (skipWhitespace() == EOF) {
+            return null;
+        }
+        gamesRead++;
+        PgnGame game = new PgnGame();
+        String problem = null;
+
+        while (peek() == '[') {
+            position++;
+            readTag(game);
+            skipWhitespace();
+        }
+        try {
+            game.setUpFromTags();
+        } catch (IllegalArgumentException e) {
+            problem = e.getMessage();
+        }
+
+        String result = null;
+        while (result == null) {
+            int c = skipWhitespace();
+            if (c == EOF || c == '[') {
+                break;
+            }
+            position++;
+            switch (c) {
+                case '{' -> skipPast('}');
+                case ';' -> skipPast('\n');
+                case '(' -> skipVariation();
+                case '$' -> readSymbol();
+                case ')', '}' -> problem = problem != null ? problem : "unexpected '" + (char) c + "'";
+                default -> {
+                    position--;
+                    readSymbol();
+                    result = resultOf(token);
+                    if (result == null && problem == null) {
+                        problem = playToken(game);
+                    }
+                }
+            }
+        }
+
+        if (problem != null) {
+            throw new PgnFormatException("Game " + gamesRead + ": " + problem);
+        }
+        if (result == null) {
+            result = game.getTag("Result");
+        }
+        game.setResult(result != null ? result : PgnGame.UNKNOWN);
+        return game;
+    }
+
+    /**
+     * @return the number of games started so far, including ones that failed to parse
+     */
+    public int getGamesRead() {
+        return gamesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Plays the SAN in the current token, skipping any move number in front of it
+    private String playToken(PgnGame game) {
+        int start = 0;
+        while (start < token.length() && Character.isDigit(token.charAt(start))) {
+            start++;
+        }
+        if (start > 0 && (start == token.length() || token.charAt(start) == '.')) {
+            while (start < token.length() && token.charAt(start) == '.') {
+                start++;
+            }
+        } else {
+            start = 0;
+        }
+        if (start == token.length()) {
+            return null;
+        }
+        try {
+            int move = san.parsePacked(game.getGame(), token, start, token.length());
+            game.addPacked(move);
+            return null;
+        } catch (InvalidMoveException e) {
+            return e.getMessage() + " at ply " + (game.getPlyCount() + 1);
+        }
+    }
+
+    private static String resultOf(CharSequence token) {
+        for (String result : RESULTS) {
+            if (result.contentEquals(token)) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private void readTag(PgnGame game) throws IOException {
+        skipWhitespace();
+        token.setLength(0);
+        int c;
+        while ((c = peek()) != EOF && c != '"' && c != ']' && !Character.isWhitespace(c)) {
+            token.append((char) c);
+            position++;
+        }
+        String name = token.toString();
+        skipWhitespace();
+        token.setLength(0);
+        if (peek() == '"') {
+            position++;
+            while ((c = read()) != EOF && c != '"') {
+                if (c == '\\') {
+                    c = read();
+                    if (c == EOF) {
+                        break;
+                    }
+                }
+                token.append((char) c);
+            }
+        }
+        skipPast(']');
+        if (!name.isEmpty()) {
+            game.setTag(name, token.toString());
+        }
+    }
+
+    // Reads a move, move number, result or glyph into the token buffer
+    private void readSymbol() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) != EOF && !Character.isWhitespace(c) && "{}()[];$".indexOf(c) < 0) {
+            token.append((char) c);
+            position++;
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        int c;
+        while (depth > 0 && (c = read()) != EOF) {
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == ';') {
+                skipPast('\n');
+            }
+        }
+    }
+
+    private void skipPast(char end) throws IOException {
+        int c;
+        while ((c = read()) != EOF && c != end) {
+            // skip
+        }
+    }
+
+    // Skips whitespace and "%" escape lines, returning the next character without consuming it
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != EOF) {
+            if (c == '%' && (position == 0 || buffer[position - 1] == '\n')) {
+                skipPast('\n');
+            } else if (Character.isWhitespace(c) || c == '\uFEFF') {
+                position++;
+            } else {
+                break;
+            }
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+}
@@ -0,0 +1,102 @@
+package chess;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Writes games in export-format PGN: the seven tag roster first (with "?" for any that
+ * are missing), then the remaining tags, then SAN movetext wrapped at 80 columns.
+ */
+public class PgnWriter implements Closeable, Flushable {
+    private static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+    private static final int LINE_LENGTH = 80;
+
+    private final Writer out;
+    private final San san = new San();
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 16);
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void write(PgnGame game) throws IOException {
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = name.equals("Result") ? game.getResult() : game.getTag(name);
+            if (value == null) {
+                value = name.equals("Date") ? "????.??.??" : "?";
+            }
+            writeTag(name, value);
+        }
+        for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+            if (!isRosterTag(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        String fen = game.getStartFen();
+        ChessGame replay = fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+        line.setLength(0);
+        for (int ply = 0; ply < game.getPlyCount(); ply++) {
+            int move = game.getPacked(ply);
+            if (replay.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+                appendToken(replay.getFullmoveNumber() + ".");
+            } else if (ply == 0) {
+                appendToken(replay.getFullmoveNumber() + "...");
+            }
+            appendToken(san.formatPacked(replay, move));
+            replay.playMove(move);
+        }
+        appendToken(game.getResult());
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void appendToken(String token) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + token.length() > LINE_LENGTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.write("\"]\n");
+    }
+
+    private static boolean isRosterTag(String name) {
+        for (String rosterTag : SEVEN_TAG_ROSTER) {
+            if (rosterTag.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
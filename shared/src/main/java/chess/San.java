@@ -0,0 +1,269 @@
+package chess;
+
+/**
+ * Standard Algebraic Notation (e.g. "Nbd7", "exd5", "e8=Q+", "O-O") for moves in a
+ * {@link ChessGame}. Moves are matched against the same legal move generation that
+ * backs {@link ChessGame#validMoves}, so disambiguation only considers pieces that
+ * can actually make the move. Instances keep their move buffers between calls and
+ * are not thread-safe.
+ */
+public final class San {
+    private static final String PIECE_LETTERS = "KQBNR";
+
+    private final MoveList moves = new MoveList();
+    private final MoveList replies = new MoveList();
+
+    /**
+     * @return the SAN for a legal move in the game's current position, with a check or mate suffix
+     * @throws InvalidMoveException if the move is not legal for the team to move
+     */
+    public String format(ChessGame game, ChessMove move) throws InvalidMoveException {
+        generateLegal(game.getBoard(), game.getTeamTurn(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.matches(moves.get(i), move)) {
+                return formatPacked(game, moves.get(i));
+            }
+        }
+        throw new InvalidMoveException("The move is not valid.");
+    }
+
+    /**
+     * @return the move a SAN string describes in the game's current position
+     * @throws InvalidMoveException if the notation is malformed, illegal or ambiguous
+     */
+    public ChessMove parse(ChessGame game, String san) throws InvalidMoveException {
+        return PackedMove.toChessMove(parsePacked(game, san, 0, san.length()));
+    }
+
+    /**
+     * Formats a packed move known to be legal in the game's position. The game is left unchanged.
+     */
+    String formatPacked(ChessGame game, int move) {
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int type = board.pieceIndexAt(from) % 6;
+        StringBuilder san = new StringBuilder(8);
+
+        if (type == ChessPiece.PieceType.KING.ordinal() && Math.abs(to - from) == 2) {
+            san.append(to > from ? "O-O" : "O-O-O");
+        } else {
+            boolean capture = PackedMove.hasFlag(move, PackedMove.CAPTURE);
+            if (type == ChessPiece.PieceType.PAWN.ordinal()) {
+                if (capture) {
+                    san.append(file(from));
+                }
+            } else {
+                san.append(PIECE_LETTERS.charAt(type));
+                appendDisambiguation(board, side, move, type, san);
+            }
+            if (capture) {
+                san.append('x');
+            }
+            san.append(file(to)).append(rank(to));
+            ChessPiece.PieceType promotion = PackedMove.promotion(move);
+            if (promotion != null) {
+                san.append('=').append(PIECE_LETTERS.charAt(promotion.ordinal()));
+            }
+        }
+
+        board.makeMove(move);
+        ChessGame.TeamColor other = opponent(side);
+        if (board.isInCheck(other)) {
+            generateLegal(board, other, replies);
+            san.append(replies.isEmpty() ? '#' : '+');
+        }
+        board.unmakeMove();
+        return san.toString();
+    }
+
+    // Adds the origin file, rank or both when another piece of the same type can reach the square
+    private void appendDisambiguation(ChessBoard board, ChessGame.TeamColor side, int move, int type, StringBuilder san) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        generateLegal(board, side, moves);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < moves.size(); i++) {
+            int other = moves.get(i);
+            int otherFrom = PackedMove.from(other);
+            if (PackedMove.to(other) != to || otherFrom == from || board.pieceIndexAt(otherFrom) % 6 != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= otherFrom % 8 == from % 8;
+            sameRank |= otherFrom / 8 == from / 8;
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append(file(from));
+        } else if (!sameRank) {
+            san.append(rank(from));
+        } else {
+            san.append(file(from)).append(rank(from));
+        }
+    }
+
+    /**
+     * Finds the legal packed move for the SAN in {@code text[start, end)}. Check, mate and
+     * annotation suffixes are ignored, as are "0-0" style castles and a missing "=" before
+     * a promotion piece.
+     *
+     * @throws InvalidMoveException if the notation is malformed, illegal or ambiguous
+     */
+    int parsePacked(ChessGame game, CharSequence text, int start, int end) throws InvalidMoveException {
+        while (end > start && "+#!?".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        if (end - start < 2) {
+            throw invalid(text, start, end);
+        }
+
+        int type = ChessPiece.PieceType.PAWN.ordinal();
+        int fromFile = -1;
+        int fromRank = -1;
+        int to;
+        int promotion = -1;
+
+        int castle = castleLength(text, start, end);
+        if (castle > 0) {
+            int king = board.kingSquare(side);
+            if (king < 0) {
+                throw invalid(text, start, end);
+            }
+            type = ChessPiece.PieceType.KING.ordinal();
+            fromFile = king % 8;
+            fromRank = king / 8;
+            to = castle == 2 ? king + 2 : king - 2;
+        } else {
+            int index = start;
+            int letter = PIECE_LETTERS.indexOf(text.charAt(index));
+            if (letter >= 0) {
+                type = letter;
+                index++;
+            }
+            int last = end - 1;
+            char tail = text.charAt(last);
+            if (type == ChessPiece.PieceType.PAWN.ordinal() && PIECE_LETTERS.indexOf(tail) > 0) {
+                promotion = PIECE_LETTERS.indexOf(tail);
+                last--;
+                if (last >= index && text.charAt(last) == '=') {
+                    last--;
+                }
+            }
+            if (last - 1 < index) {
+                throw invalid(text, start, end);
+            }
+            to = squareAt(text, last - 1);
+            if (to < 0) {
+                throw invalid(text, start, end);
+            }
+            for (int i = index; i < last - 1; i++) {
+                char c = text.charAt(i);
+                if (c >= 'a' && c <= 'h') {
+                    fromFile = c - 'a';
+                } else if (c >= '1' && c <= '8') {
+                    fromRank = c - '1';
+                } else if (c != 'x' && c != '-' && c != ':') {
+                    throw invalid(text, start, end);
+                }
+            }
+        }
+
+        MoveGenerator.generateMoves(board, side, clear(moves));
+        int found = PackedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = PackedMove.from(move);
+            ChessPiece.PieceType movePromotion = PackedMove.promotion(move);
+            if (PackedMove.to(move) != to
+                    || board.pieceIndexAt(from) % 6 != type
+                    || (fromFile >= 0 && from % 8 != fromFile)
+                    || (fromRank >= 0 && from / 8 != fromRank)
+                    || (movePromotion == null ? promotion >= 0 : movePromotion.ordinal() != promotion)
+                    || !isLegal(board, side, move)) {
+                continue;
+            }
+            if (found != PackedMove.NONE) {
+                throw new InvalidMoveException("Ambiguous move " + text.subSequence(start, end));
+            }
+            found = move;
+        }
+        if (found == PackedMove.NONE) {
+            throw new InvalidMoveException("Illegal move " + text.subSequence(start, end));
+        }
+        return found;
+    }
+
+    // 2 for a kingside castle, 3 for queenside, 0 if the text is not a castle
+    private static int castleLength(CharSequence text, int start, int end) {
+        int length = end - start;
+        if (length != 3 && length != 5) {
+            return 0;
+        }
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            boolean expected = (i - start) % 2 == 0 ? (c == 'O' || c == '0') : c == '-';
+            if (!expected) {
+                return 0;
+            }
+        }
+        return length == 3 ? 2 : 3;
+    }
+
+    private static int squareAt(CharSequence text, int index) {
+        char file = text.charAt(index);
+        char rank = text.charAt(index + 1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return (rank - '1') * 8 + (file - 'a');
+    }
+
+    private static void generateLegal(ChessBoard board, ChessGame.TeamColor side, MoveList legal) {
+        MoveGenerator.generateMoves(board, side, clear(legal));
+        int kept = 0;
+        int generated = legal.size();
+        for (int i = 0; i < generated; i++) {
+            int move = legal.get(i);
+            if (isLegal(board, side, move)) {
+                legal.set(kept++, move);
+            }
+        }
+        legal.truncate(kept);
+    }
+
+    private static boolean isLegal(ChessBoard board, ChessGame.TeamColor side, int move) {
+        board.makeMove(move);
+        boolean legal = !board.isInCheck(side);
+        board.unmakeMove();
+        return legal;
+    }
+
+    private static MoveList clear(MoveList list) {
+        list.clear();
+        return list;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor side) {
+        return side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    private static char file(int square) {
+        return (char) ('a' + square % 8);
+    }
+
+    private static char rank(int square) {
+        return (char) ('1' + square / 8);
+    }
+
+    private static InvalidMoveException invalid(CharSequence text, int start, int end) {
+        return new InvalidMoveException("Malformed move " + text.subSequence(start, end));
+    }
+}
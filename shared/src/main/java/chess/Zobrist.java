@@ -0,0 +1,54 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of one key per
+ * piece on a square, the castling rights, the en passant file (only when a capture
+ * is actually possible) and the side to move. The seed is fixed so keys are stable
+ * across runs and can be persisted.
+ */
+public final class Zobrist {
+    private static final long[][] PIECES = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_C4E55L);
+        for (long[] piece : PIECES) {
+            for (int square = 0; square < 64; square++) {
+                piece[square] = random.nextLong();
+            }
+        }
+        for (int rights = 0; rights < 16; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param index piece index, see {@link ChessBoard#pieceIndex}
+     */
+    public static long piece(int index, int square) {
+        return PIECES[index][square];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassantFile(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+
+    public static long sideToMove(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+}
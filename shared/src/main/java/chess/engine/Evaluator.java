@@ -0,0 +1,135 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Static evaluation in centipawns: material plus piece-square tables, with the king
+ * table blended from middlegame to endgame as pieces come off. Tables are written
+ * from white's side with a8 first, the way a board is usually printed.
+ */
+public final class Evaluator {
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    private static final int[] PAWN_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] ROOK_TABLE = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] KING_MIDDLEGAME_TABLE = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] KING_ENDGAME_TABLE = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+    // Indexed like PIECE_VALUES; the king's entry is unused since it is blended separately
+    private static final int[][] TABLES = {
+            KING_MIDDLEGAME_TABLE, QUEEN_TABLE, BISHOP_TABLE, KNIGHT_TABLE, ROOK_TABLE, PAWN_TABLE
+    };
+    // Game phase weight of each piece type; 24 is a full set of pieces
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+    private static final int FULL_PHASE = 24;
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private Evaluator() {
+    }
+
+    /**
+     * @return the score of the position for the given side, positive when it is better off
+     */
+    public static int evaluate(ChessBoard board, ChessGame.TeamColor side) {
+        int score = 0;
+        int phase = 0;
+        int kingMiddlegame = 0;
+        int kingEndgame = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int sign = color == ChessGame.TeamColor.WHITE ? 1 : -1;
+            for (ChessPiece.PieceType type : TYPES) {
+                long pieces = board.getBitboard(color, type);
+                int index = type.ordinal();
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    int tableIndex = tableIndex(color, square);
+                    phase += PHASE_WEIGHTS[index];
+                    if (type == ChessPiece.PieceType.KING) {
+                        kingMiddlegame += sign * KING_MIDDLEGAME_TABLE[tableIndex];
+                        kingEndgame += sign * KING_ENDGAME_TABLE[tableIndex];
+                    } else {
+                        score += sign * (PIECE_VALUES[index] + TABLES[index][tableIndex]);
+                    }
+                }
+            }
+        }
+        phase = Math.min(phase, FULL_PHASE);
+        score += (kingMiddlegame * phase + kingEndgame * (FULL_PHASE - phase)) / FULL_PHASE;
+        return side == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    // Tables are printed from rank 8 down for white; black reads them mirrored
+    private static int tableIndex(ChessGame.TeamColor color, int square) {
+        return color == ChessGame.TeamColor.WHITE ? (7 - square / 8) * 8 + square % 8 : square;
+    }
+}
@@ -0,0 +1,123 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lazy SMP: every thread searches the same root on its own copy of the board, and the
+ * only thing they share is the {@link TranspositionTable}. Helper threads run ahead at
+ * staggered depths and leave results in the table that shorten the main thread's
+ * search. The calling thread is the main thread; its result is the one returned, and
+ * when it finishes the helpers are stopped.
+ * <p>
+ * Helper threads are started once and reused. Like {@link Search}, an instance runs one
+ * search at a time, {@link #stop()} may be called from any thread, and it should be
+ * closed when no longer needed.
+ */
+public class ParallelSearch implements AutoCloseable {
+    private final TranspositionTable table;
+    private final Search main;
+    private final Search[] helpers;
+    private final ExecutorService helperPool;
+    private final AtomicBoolean stop = new AtomicBoolean();
+
+    /**
+     * Searches with one thread per available processor and a default-sized table
+     */
+    public ParallelSearch() {
+        this(Runtime.getRuntime().availableProcessors(), new TranspositionTable());
+    }
+
+    /**
+     * @param threads total number of search threads, including the calling thread
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread");
+        }
+        this.table = table;
+        main = new Search(table);
+        helpers = new Search[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(table);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        helperPool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches the game's current position on all threads. The game itself is not modified.
+     * Time and node limits apply to the main thread; helpers run until it is done.
+     *
+     * @return the main thread's result, with the node count of every thread
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newSearch();
+        stop.set(false);
+        // Reading the game can update its cached position keys, so only this thread reads it
+        Search.Root root = Search.Root.of(game);
+        SearchLimits helperLimits = SearchLimits.depth(limits.maxDepth());
+        List<Future<SearchResult>> running = new ArrayList<>(helpers.length);
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = helpers[i];
+            int helperIndex = i + 1;
+            running.add(helperPool.submit(() -> helper.search(root, helperLimits, helperIndex, stop)));
+        }
+
+        SearchResult result;
+        try {
+            result = main.search(root, limits, 0, stop);
+        } finally {
+            stop.set(true);
+        }
+
+        long nodes = result.nodes();
+        for (Future<SearchResult> helper : running) {
+            try {
+                nodes += helper.get().nodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), result.principalVariation(),
+                nodes, result.timeMillis());
+    }
+
+    /**
+     * Asks a running search to return as soon as possible with the main thread's last completed iteration
+     */
+    public void stop() {
+        stop.set(true);
+    }
+
+    public int getThreadCount() {
+        return helpers.length + 1;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    @Override
+    public void close() {
+        stop.set(true);
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+        }
+    }
+}
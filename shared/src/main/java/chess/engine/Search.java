@@ -0,0 +1,482 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.Zobrist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterative-deepening negamax alpha-beta search over packed moves. Each iteration is a
+ * principal variation search: the first move gets a full window and the rest a null
+ * window, re-searched only if they beat it. Null-move pruning and late-move reductions
+ * cut the tree, and a quiescence search over captures settles the leaves. Results are
+ * cached in a {@link TranspositionTable}, which outlives a single search so analysing
+ * the same game again starts from what is already known.
+ * <p>
+ * An instance keeps its move buffers and ordering tables between searches and is not
+ * thread-safe, except that {@link #stop()} may be called from any thread. The table
+ * may be shared with other instances.
+ */
+public class Search {
+    public static final int MATE = 32_000;
+    public static final int MAX_PLY = 128;
+    private static final int INFINITY = MATE + 1;
+    private static final int ASPIRATION_WINDOW = 50;
+    // Limits are checked every 2048 nodes
+    private static final int CHECK_MASK = 2047;
+
+    private static final int PV_SCORE = 2_000_000;
+    private static final int CAPTURE_SCORE = 1_000_000;
+    private static final int KILLER_SCORE = 900_000;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final int[][] moveScores = new int[MAX_PLY + 1][256];
+    private final int[][] pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[12][64];
+    private final TranspositionTable table;
+
+    private ChessBoard board;
+    // Position keys: the game's reversible history, then one per ply of the current path
+    private long[] keys;
+    private int rootIndex;
+    private int[] previousPv = new int[0];
+    private boolean followPv;
+
+    private long nodes;
+    private long deadline;
+    private long maxNodes;
+    private boolean canStop;
+    private boolean stopped;
+    private volatile boolean stopRequested;
+    // Set by a parallel search to stop all of its threads together
+    private AtomicBoolean sharedStop;
+
+    public Search() {
+        this(new TranspositionTable());
+    }
+
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches the game's current position. The game itself is not modified.
+     *
+     * @return the best move found within the limits, with its score and expected line
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newSearch();
+        return search(Root.of(game), limits, 0, null);
+    }
+
+    /**
+     * What a search needs from the game, read once so that threads searching the same
+     * position never touch the game itself. Every thread copies the board before moving
+     * on it; the board and keys here are only read.
+     */
+    record Root(ChessBoard board, ChessGame.TeamColor side, long[] keys) {
+        static Root of(ChessGame game) {
+            return new Root(new ChessBoard(game.getBoard()), game.getTeamTurn(), game.getReversiblePositionKeys());
+        }
+    }
+
+    /**
+     * Runs one thread's share of a parallel search. Helper threads (any index but 0) start
+     * odd-numbered helpers one ply deeper on every iteration, so the threads spread out
+     * over the tree and fill the shared table for each other instead of repeating the
+     * same work in lockstep.
+     *
+     * @param sharedStop stops the search when set, in addition to the limits
+     */
+    SearchResult search(Root root, SearchLimits limits, int helperIndex, AtomicBoolean sharedStop) {
+        long start = System.nanoTime();
+        board = new ChessBoard(root.board());
+        ChessGame.TeamColor side = root.side();
+        long[] gameKeys = root.keys();
+        keys = Arrays.copyOf(gameKeys, gameKeys.length + MAX_PLY + 1);
+        rootIndex = gameKeys.length - 1;
+        nodes = 0;
+        deadline = limits.timeMillis() > 0 ? start + limits.timeMillis() * 1_000_000 : Long.MAX_VALUE;
+        maxNodes = limits.maxNodes() > 0 ? limits.maxNodes() : Long.MAX_VALUE;
+        canStop = false;
+        stopped = false;
+        stopRequested = false;
+        this.sharedStop = sharedStop;
+        previousPv = new int[0];
+        for (int[] killer : killers) {
+            Arrays.fill(killer, PackedMove.NONE);
+        }
+        for (int[] pieceHistory : history) {
+            Arrays.fill(pieceHistory, 0);
+        }
+
+        int bestScore = 0;
+        int completedDepth = 0;
+        int depthOffset = helperIndex % 2;
+        for (int iteration = 1; iteration <= limits.maxDepth(); iteration++) {
+            int depth = Math.min(iteration + depthOffset, limits.maxDepth());
+            followPv = true;
+            int score;
+            if (depth >= 4) {
+                int alpha = bestScore - ASPIRATION_WINDOW;
+                int beta = bestScore + ASPIRATION_WINDOW;
+                score = negamax(depth, alpha, beta, 0, side, true);
+                if (!stopped && (score <= alpha || score >= beta)) {
+                    followPv = true;
+                    score = negamax(depth, -INFINITY, INFINITY, 0, side, true);
+                }
+            } else {
+                score = negamax(depth, -INFINITY, INFINITY, 0, side, true);
+            }
+            if (stopped) {
+                break;
+            }
+            bestScore = score;
+            completedDepth = depth;
+            previousPv = Arrays.copyOf(pvTable[0], pvLength[0]);
+            canStop = true;
+            if (depth == limits.maxDepth() || Math.abs(score) >= MATE - MAX_PLY || previousPv.length == 0
+                    || limitReached()) {
+                break;
+            }
+        }
+
+        List<ChessMove> line = new ArrayList<>(previousPv.length);
+        for (int move : previousPv) {
+            line.add(PackedMove.toChessMove(move));
+        }
+        ChessMove bestMove = line.isEmpty() ? null : line.get(0);
+        return new SearchResult(bestMove, bestScore, completedDepth, line, nodes,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Asks a running search to return as soon as possible with its last completed iteration
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply, ChessGame.TeamColor side, boolean allowNull) {
+        pvLength[ply] = ply;
+        long key = board.zobristKey() ^ Zobrist.sideToMove(side);
+        keys[rootIndex + ply] = key;
+        if (ply > 0 && (board.getHalfmoveClock() >= 100 || isRepetition(ply) || board.hasInsufficientMaterial())) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(board, side);
+        }
+
+        boolean inCheck = board.isInCheck(side);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply, side);
+        }
+        if ((++nodes & CHECK_MASK) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        // Principal variation nodes are never cut from the table, so the line stays complete
+        boolean pvNode = beta - alpha > 1;
+        int hashMove = PackedMove.NONE;
+        long entry = table.probe(key);
+        if (entry != TranspositionTable.MISS) {
+            hashMove = TranspositionTable.move(entry);
+            if (!pvNode && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        ChessGame.TeamColor other = opponent(side);
+        if (allowNull && !inCheck && ply > 0 && depth >= 3 && Math.abs(beta) < MATE - MAX_PLY
+                && hasPieces(side) && Evaluator.evaluate(board, side) >= beta) {
+            int reduction = depth >= 6 ? 3 : 2;
+            board.makeNullMove();
+            int score = -negamax(depth - 1 - reduction, -beta, -beta + 1, ply + 1, other, false);
+            board.unmakeNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE - MAX_PLY ? beta : score;
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.generateMoves(board, side, moves);
+        scoreMoves(moves, ply, hashMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        int legalMoves = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextBest(moves, ply, i);
+            board.makeMove(move);
+            if (board.isInCheck(side)) {
+                board.unmakeMove();
+                continue;
+            }
+            legalMoves++;
+            boolean quiet = isQuiet(move);
+
+            int score;
+            if (legalMoves == 1) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, other, true);
+            } else {
+                int reduction = 0;
+                if (depth >= 3 && legalMoves > 3 && quiet && !inCheck && !board.isInCheck(other)) {
+                    reduction = legalMoves > 10 && depth >= 6 ? 2 : 1;
+                }
+                score = -negamax(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, other, true);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1, other, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1, other, true);
+                }
+            }
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        if (quiet) {
+                            rememberCutoff(move, ply, depth);
+                        }
+                        table.store(key, move, TranspositionTable.toStored(score, ply), depth, TranspositionTable.LOWER_BOUND);
+                        return score;
+                    }
+                }
+            }
+        }
+
+        if (legalMoves == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (bestScore > originalAlpha) {
+            table.store(key, bestMove, TranspositionTable.toStored(bestScore, ply), depth, TranspositionTable.EXACT);
+        } else {
+            table.store(key, PackedMove.NONE, TranspositionTable.toStored(bestScore, ply), depth, TranspositionTable.UPPER_BOUND);
+        }
+        return bestScore;
+    }
+
+    private int quiesce(int alpha, int beta, int ply, ChessGame.TeamColor side) {
+        pvLength[ply] = ply;
+        if ((++nodes & CHECK_MASK) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(board, side);
+        }
+
+        // In check every move is searched, so mates are not mistaken for quiet positions
+        boolean inCheck = board.isInCheck(side);
+        int bestScore = -INFINITY;
+        if (!inCheck) {
+            bestScore = Evaluator.evaluate(board, side);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        if (inCheck) {
+            MoveGenerator.generateMoves(board, side, moves);
+        } else {
+            MoveGenerator.generateCaptures(board, side, moves);
+        }
+        followPv = false;
+        scoreMoves(moves, ply, PackedMove.NONE);
+
+        ChessGame.TeamColor other = opponent(side);
+        int legalMoves = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextBest(moves, ply, i);
+            board.makeMove(move);
+            if (board.isInCheck(side)) {
+                board.unmakeMove();
+                continue;
+            }
+            legalMoves++;
+            int score = -quiesce(-beta, -alpha, ply + 1, other);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        return score;
+                    }
+                }
+            }
+        }
+        if (inCheck && legalMoves == 0) {
+            return -MATE + ply;
+        }
+        return bestScore;
+    }
+
+    // Previous principal variation first, then the table's best move, captures by most
+    // valuable victim and least valuable attacker, promotions, killer moves and finally
+    // quiet moves by history
+    private void scoreMoves(MoveList moves, int ply, int hashMove) {
+        if (moveScores[ply].length < moves.size()) {
+            moveScores[ply] = new int[moves.size()];
+        }
+        int[] scores = moveScores[ply];
+        int pvMove = followPv && ply < previousPv.length ? previousPv[ply] : PackedMove.NONE;
+        boolean pvFound = false;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int piece = board.pieceIndexAt(PackedMove.from(move));
+            int score;
+            if (move == pvMove) {
+                score = PV_SCORE;
+                pvFound = true;
+            } else if (move == hashMove) {
+                score = PV_SCORE - 1;
+            } else if (PackedMove.hasFlag(move, PackedMove.CAPTURE)) {
+                int victim = PackedMove.hasFlag(move, PackedMove.EN_PASSANT)
+                        ? ChessPiece.PieceType.PAWN.ordinal() : board.pieceIndexAt(PackedMove.to(move)) % 6;
+                score = CAPTURE_SCORE + Evaluator.PIECE_VALUES[victim] * 10 - Evaluator.PIECE_VALUES[piece % 6] / 10;
+            } else if (PackedMove.isPromotion(move)) {
+                score = CAPTURE_SCORE + Evaluator.PIECE_VALUES[PackedMove.promotion(move).ordinal()];
+            } else if (move == killers[ply][0]) {
+                score = KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                score = KILLER_SCORE - 1;
+            } else {
+                score = history[piece][PackedMove.to(move)];
+            }
+            scores[i] = score;
+        }
+        followPv = pvFound;
+    }
+
+    // Selection sort step: swaps the best remaining move into position i
+    private int nextBest(MoveList moves, int ply, int i) {
+        int[] scores = moveScores[ply];
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        if (best != i) {
+            int move = moves.get(best);
+            moves.set(best, moves.get(i));
+            moves.set(i, move);
+            int score = scores[best];
+            scores[best] = scores[i];
+            scores[i] = score;
+        }
+        return moves.get(i);
+    }
+
+    private void rememberCutoff(int move, int ply, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int piece = board.pieceIndexAt(PackedMove.from(move));
+        int[] pieceHistory = history[piece];
+        pieceHistory[PackedMove.to(move)] += depth * depth;
+        if (pieceHistory[PackedMove.to(move)] > KILLER_SCORE / 2) {
+            for (int[] row : history) {
+                for (int square = 0; square < row.length; square++) {
+                    row[square] /= 2;
+                }
+            }
+        }
+    }
+
+    private void updatePv(int ply, int move) {
+        pvTable[ply][ply] = move;
+        int length = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, length - ply - 1);
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    // A repetition anywhere since the last irreversible move is scored as a draw
+    private boolean isRepetition(int ply) {
+        int current = rootIndex + ply;
+        int earliest = Math.max(0, current - board.getHalfmoveClock());
+        for (int index = current - 2; index >= earliest; index -= 2) {
+            if (keys[index] == keys[current]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkLimits() {
+        if (canStop && limitReached()) {
+            stopped = true;
+        }
+    }
+
+    private boolean limitReached() {
+        return stopRequested || (sharedStop != null && sharedStop.get()) || nodes >= maxNodes || System.nanoTime() >= deadline;
+    }
+
+    private static boolean isQuiet(int move) {
+        return !PackedMove.hasFlag(move, PackedMove.CAPTURE) && !PackedMove.isPromotion(move);
+    }
+
+    private boolean hasPieces(ChessGame.TeamColor side) {
+        return (board.getBitboard(side, ChessPiece.PieceType.QUEEN) | board.getBitboard(side, ChessPiece.PieceType.ROOK)
+                | board.getBitboard(side, ChessPiece.PieceType.BISHOP) | board.getBitboard(side, ChessPiece.PieceType.KNIGHT)) != 0;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor side) {
+        return side == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,34 @@
+package chess.engine;
+
+/**
+ * When a search should stop. A search always finishes depth 1 so it has a move to
+ * return, then stops at whichever limit it reaches first.
+ *
+ * @param maxDepth deepest iteration to run
+ * @param timeMillis wall-clock budget, or 0 for none
+ * @param maxNodes node budget, or 0 for none
+ */
+public record SearchLimits(int maxDepth, long timeMillis, long maxNodes) {
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Search depth must be between 1 and " + MAX_DEPTH);
+        }
+        if (timeMillis < 0 || maxNodes < 0) {
+            throw new IllegalArgumentException("Search limits cannot be negative");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits time(long millis) {
+        return new SearchLimits(MAX_DEPTH, millis, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, 0, nodes);
+    }
+}
@@ -0,0 +1,40 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search
+ *
+ * @param bestMove the move to play, or null if the side to move has no legal moves
+ * @param score centipawns for the side to move; mates are scored {@link Search#MATE} minus
+ *              the distance in plies
+ * @param depth the deepest fully searched iteration
+ * @param principalVariation the expected line, starting with the best move
+ * @param nodes positions visited
+ * @param timeMillis time taken
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, List<ChessMove> principalVariation,
+                           long nodes, long timeMillis) {
+
+    /**
+     * @return True if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+
+    /**
+     * @return moves until mate (negative when the side to move is getting mated), or 0 if
+     * the score is not a mate
+     */
+    public int mateIn() {
+        if (!isMate()) {
+            return 0;
+        }
+        int plies = Search.MATE - Math.abs(score);
+        int moves = (plies + 1) / 2;
+        return score > 0 ? moves : -moves;
+    }
+}
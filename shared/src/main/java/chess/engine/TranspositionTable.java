@@ -0,0 +1,213 @@
+package chess.engine;
+
+import chess.PackedMove;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size cache of search results keyed by Zobrist key, stored in a flat
+ * {@code long[]} so it costs the garbage collector nothing however large it is.
+ * Each entry is two longs: the key XORed with the data, then the data. A reader only
+ * accepts an entry when the pair XORs back to its key, so a torn write from another
+ * thread looks like a miss and the table can be shared by many searches without locks.
+ * <p>
+ * Entries are grouped into buckets of four (one 64-byte cache line). A store replaces
+ * the entry for the same position if there is one, otherwise the entry with the least
+ * depth after a penalty for each search since it was written.
+ */
+public class TranspositionTable {
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    // Bound types; never zero, so a stored entry's data is never zero
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+    public static final int EXACT = 3;
+
+    /**
+     * Returned by {@link #probe} when the position is not in the table
+     */
+    public static final long MISS = 0;
+
+    private static final int ENTRY_LONGS = 2;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_LONGS = ENTRY_LONGS * BUCKET_ENTRIES;
+    private static final int BYTES_PER_BUCKET = BUCKET_LONGS * Long.BYTES;
+
+    // Data layout: move (19 bits) | score + 2^15 (16) | depth (8) | bound (2) | age (8)
+    private static final int SCORE_SHIFT = 19;
+    private static final int DEPTH_SHIFT = 35;
+    private static final int BOUND_SHIFT = 43;
+    private static final int AGE_SHIFT = 45;
+    private static final int MOVE_MASK = (1 << SCORE_SHIFT) - 1;
+    private static final int SCORE_OFFSET = 1 << 15;
+    private static final int AGE_MASK = 0xFF;
+    // How many plies of depth one search of age is worth when choosing an entry to replace
+    private static final int AGE_PENALTY = 8;
+
+    private final long[] entries;
+    private final long bucketMask;
+    private volatile int age;
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * @param sizeMb memory to use, rounded down to a power of two
+     */
+    public TranspositionTable(int sizeMb) {
+        if (sizeMb < 1 || sizeMb > 16_384) {
+            throw new IllegalArgumentException("Table size must be between 1 and 16384 MB");
+        }
+        long buckets = Long.highestOneBit((long) sizeMb * 1024 * 1024 / BYTES_PER_BUCKET);
+        if (buckets * BUCKET_LONGS > Integer.MAX_VALUE - 8) {
+            buckets >>= 1;
+        }
+        entries = new long[(int) (buckets * BUCKET_LONGS)];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * @return the data stored for the position, or {@link #MISS}; decode it with the static accessors
+     */
+    public long probe(long key) {
+        int bucket = bucketIndex(key);
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = entries[i + 1];
+            if (data != MISS && (entries[i] ^ data) == key) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a search result. Mate scores must already be made relative to this
+     * position with {@link #toStored}.
+     *
+     * @param move the best move found, or {@link PackedMove#NONE} to keep the one already stored
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int bucket = bucketIndex(key);
+        int currentAge = age;
+        int replace = bucket;
+        int replaceValue = Integer.MAX_VALUE;
+        for (int i = bucket; i < bucket + BUCKET_LONGS; i += ENTRY_LONGS) {
+            long data = entries[i + 1];
+            if (data == MISS) {
+                replace = i;
+                break;
+            }
+            if ((entries[i] ^ data) == key) {
+                // Keep a deeper result for this position from the current search
+                if (depth < depth(data) && bound != EXACT && age(data) == currentAge) {
+                    return;
+                }
+                if (move == PackedMove.NONE) {
+                    move = move(data);
+                }
+                replace = i;
+                break;
+            }
+            int value = depth(data) - AGE_PENALTY * ((currentAge - age(data)) & AGE_MASK);
+            if (value < replaceValue) {
+                replaceValue = value;
+                replace = i;
+            }
+        }
+        long data = (move & MOVE_MASK)
+                | (long) (score + SCORE_OFFSET) << SCORE_SHIFT
+                | (long) Math.max(0, Math.min(depth, 0xFF)) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) currentAge << AGE_SHIFT;
+        entries[replace] = key ^ data;
+        entries[replace + 1] = data;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches are replaced first
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        Arrays.fill(entries, 0);
+        age = 0;
+    }
+
+    /**
+     * @return the number of entries the table can hold
+     */
+    public int capacity() {
+        return entries.length / ENTRY_LONGS;
+    }
+
+    /**
+     * @return the table's occupancy in permille, sampled from the first thousand entries
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, capacity());
+        int used = 0;
+        int currentAge = age;
+        for (int i = 0; i < sample; i++) {
+            long data = entries[i * ENTRY_LONGS + 1];
+            if (data != MISS && age(data) == currentAge) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public static int move(long data) {
+        return (int) (data & MOVE_MASK);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    /**
+     * @return the stored score, with mate scores made relative to the root again
+     */
+    public static int score(long data, int ply) {
+        int score = (int) (data >>> SCORE_SHIFT & 0xFFFF) - SCORE_OFFSET;
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Mate scores count plies from the root; the table stores them counted from the
+     * position itself so they stay correct wherever the position is reached.
+     */
+    public static int toStored(int score, int ply) {
+        if (score >= Search.MATE - Search.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Search.MATE + Search.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & AGE_MASK;
+    }
+
+    private int bucketIndex(long key) {
+        // The low bits pick the bucket; the full key is still checked on probe
+        return (int) (key & bucketMask) * BUCKET_LONGS;
+    }
+}
@@ -0,0 +1,19 @@
+package model;
+
+import java.util.List;
+
+/**
+ * An engine evaluation of a game's current position. Scores are from white's point of
+ * view so every viewer of the game reads them the same way.
+ *
+ * @param bestMove the engine's move in SAN, or null if the game is over
+ * @param score centipawns, positive when white is better
+ * @param mate moves until mate, positive when white mates, or null if no mate was found
+ * @param depth the deepest fully searched iteration
+ * @param principalVariation the expected line in SAN, starting with the best move
+ * @param nodes positions visited
+ * @param timeMillis time taken by the search
+ */
+public record AnalysisResult(String bestMove, int score, Integer mate, int depth, List<String> principalVariation,
+                             long nodes, long timeMillis) {
+}
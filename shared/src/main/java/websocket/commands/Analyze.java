@@ -0,0 +1,24 @@
+package websocket.commands;
+
+public class Analyze extends UserGameCommand {
+    private int gameID;
+    private long timeMillis;
+
+    public Analyze(String authToken, int gameID, long timeMillis) {
+        super(authToken);
+        this.gameID = gameID;
+        this.timeMillis = timeMillis;
+        this.commandType = CommandType.ANALYZE;
+    }
+
+    public int getGameID() {
+        return gameID;
+    }
+
+    /**
+     * @return the requested search time, or 0 for the server's default
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+}
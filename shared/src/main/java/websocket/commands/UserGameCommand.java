@@ -19,7 +19,8 @@ public class UserGameCommand {
         CONNECT,
         MAKE_MOVE,
         LEAVE,
-        RESIGN
+        RESIGN,
+        ANALYZE
     }
 
     protected CommandType commandType;
@@ -0,0 +1,22 @@
+package websocket.messages;
+
+import model.AnalysisResult;
+
+public class Analysis extends ServerMessage {
+    private int gameID;
+    private AnalysisResult analysis;
+
+    public Analysis(int gameID, AnalysisResult analysis) {
+        super(ServerMessageType.ANALYSIS);
+        this.gameID = gameID;
+        this.analysis = analysis;
+    }
+
+    public int getGameID() {
+        return gameID;
+    }
+
+    public AnalysisResult getAnalysis() {
+        return analysis;
+    }
+}
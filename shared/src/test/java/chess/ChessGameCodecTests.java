@@ -0,0 +1,38 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessGameCodecTests {
+
+    @Test
+    @DisplayName("Encoded Game Round Trips")
+    public void roundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+
+        byte[] bytes = ChessGameCodec.encode(game);
+        Assertions.assertEquals(ChessGameCodec.ENCODED_LENGTH, bytes.length);
+
+        ChessGame decoded = ChessGameCodec.decode(bytes);
+        Assertions.assertEquals(game, decoded, "decoded game did not match");
+        Assertions.assertEquals(game.getTeamTurn(), decoded.getTeamTurn());
+        Assertions.assertEquals(game.getBoard().getCastlingRights(), decoded.getBoard().getCastlingRights());
+        Assertions.assertEquals(game.getBoard().getEnPassantSquare(), decoded.getBoard().getEnPassantSquare());
+        Assertions.assertEquals(2, decoded.getBoard().getHalfmoveClock());
+        Assertions.assertEquals(2, decoded.getFullmoveNumber());
+        Assertions.assertEquals(game.zobristKey(), decoded.zobristKey(), "decoded game hashed differently");
+    }
+
+    @Test
+    @DisplayName("Rejects Foreign Or Newer Data")
+    public void rejectsBadHeader() {
+        byte[] bytes = ChessGameCodec.encode(new ChessGame());
+        bytes[1] = (byte) (ChessGameCodec.VERSION + 1);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(bytes));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(new byte[]{'{', '}'}));
+    }
+}
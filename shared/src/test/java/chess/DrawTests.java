@@ -0,0 +1,76 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DrawTests {
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove[] shuffle = {
+                move(1, 7, 3, 6), move(8, 7, 6, 6), move(3, 6, 1, 7), move(6, 6, 8, 7)
+        };
+        for (ChessMove move : shuffle) {
+            game.makeMove(move);
+        }
+        Assertions.assertEquals(2, game.repetitionCount());
+        Assertions.assertFalse(game.status().isDraw());
+
+        for (ChessMove move : shuffle) {
+            game.makeMove(move);
+        }
+        Assertions.assertEquals(3, game.repetitionCount());
+        Assertions.assertEquals(GameStatus.DrawReason.THREEFOLD_REPETITION, game.status().drawReason());
+        Assertions.assertTrue(game.status().isGameOver());
+
+        game.undo();
+        Assertions.assertFalse(game.status().isDraw(), "undo should take the repetition back");
+    }
+
+    @Test
+    @DisplayName("Irreversible Move Resets Repetitions")
+    public void captureResetsRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(3, 6, 1, 7));
+        game.makeMove(move(6, 6, 8, 7));
+        game.makeMove(move(2, 5, 4, 5));
+        Assertions.assertEquals(1, game.repetitionCount());
+    }
+
+    @Test
+    @DisplayName("Fifty-Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+        Assertions.assertFalse(game.status().isDraw());
+        game.makeMove(move(1, 1, 1, 2));
+        Assertions.assertEquals(GameStatus.DrawReason.FIFTY_MOVE_RULE, game.status().drawReason());
+
+        ChessGame pawnMove = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/R3K3 w - - 99 80");
+        pawnMove.makeMove(move(2, 5, 3, 5));
+        Assertions.assertFalse(pawnMove.status().isDraw());
+    }
+
+    @Test
+    @DisplayName("Insufficient Material")
+    public void insufficientMaterial() {
+        Assertions.assertEquals(GameStatus.DrawReason.INSUFFICIENT_MATERIAL,
+                ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w").status().drawReason());
+        Assertions.assertTrue(ChessGame.fromFen("4k3/8/8/8/8/8/8/4KB2 w").status().isDraw());
+        Assertions.assertTrue(ChessGame.fromFen("4kn2/8/8/8/8/8/8/4K3 w").status().isDraw());
+        Assertions.assertTrue(ChessGame.fromFen("4kb2/8/8/8/8/8/8/2B1K3 w").status().isDraw());
+
+        Assertions.assertFalse(ChessGame.fromFen("4k1b1/8/8/8/8/8/8/2B1K3 w").status().isDraw());
+        Assertions.assertFalse(ChessGame.fromFen("4kn2/8/8/8/8/8/8/1N2K3 w").status().isDraw());
+        Assertions.assertFalse(ChessGame.fromFen("4k3/8/8/8/8/8/7P/4K3 w").status().isDraw());
+        Assertions.assertFalse(new ChessGame().status().isDraw());
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
@@ -0,0 +1,81 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Starting Position FEN")
+    public void startingPosition() {
+        Assertions.assertEquals(START, new ChessGame().toFen());
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(START));
+    }
+
+    @Test
+    @DisplayName("FEN Tracks Moves And Clocks")
+    public void afterMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+    }
+
+    @Test
+    @DisplayName("FEN Round Trips")
+    public void roundTrip() {
+        String[] positions = {
+                START,
+                "r1bqk2r/ppp2pp1/2np1n1p/2b1p1B1/2B1P3/2NP1N2/PPP2PPP/R2QK2R w KQkq - 0 7",
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 12 41",
+        };
+        for (String fen : positions) {
+            ChessGame game = ChessGame.fromFen(fen);
+            Assertions.assertEquals(fen, game.toFen());
+            Assertions.assertEquals(game.zobristKey(), ChessGame.fromFen(game.toFen()).zobristKey());
+        }
+        String placement = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8";
+        Assertions.assertEquals(placement, ChessBoard.fromFen(placement).toFen());
+
+        // The largest halfmove clock survives a move and its undo
+        ChessGame longGame = ChessGame.fromFen("8/8/8/8/8/8/8/K6k w - - " + ChessBoard.MAX_HALFMOVE_CLOCK + " 1");
+        ChessBoard board = longGame.getBoard();
+        board.makeMove(PackedMove.encode(0, 1, null, 0));
+        board.unmakeMove();
+        Assertions.assertEquals(ChessBoard.MAX_HALFMOVE_CLOCK, board.getHalfmoveClock());
+    }
+
+    @Test
+    @DisplayName("Optional Fields Default")
+    public void optionalFields() {
+        ChessGame game = ChessGame.fromFen("8/8/8/8/8/8/8/K6k b");
+        Assertions.assertEquals("8/8/8/8/8/8/8/K6k b - - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Malformed FEN Rejected")
+    public void malformed() {
+        String[] invalid = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - -1 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 131072 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra",
+        };
+        for (String fen : invalid) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(null));
+    }
+}
@@ -0,0 +1,50 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class GameJsonTests {
+
+    @Test
+    @DisplayName("Games Saved With The Grid Board Still Load")
+    public void legacyGrid() throws IOException, InvalidMoveException {
+        // Written by the original ChessGame/ChessBoard after 1. e4 e5 2. Nf3
+        ChessGame game = new Gson().fromJson(fixture("baseline-game.json"), ChessGame.class);
+
+        Assertions.assertEquals("rnbqkbnr/pppp1ppp/8/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 0 1", game.toFen());
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT),
+                game.getBoard().getPiece(new ChessPosition(3, 6)));
+        Assertions.assertEquals(2, game.validMoves(new ChessPosition(8, 2)).size());
+        game.makeMove(new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null));
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertEquals(1, game.getPlyCount());
+    }
+
+    @Test
+    @DisplayName("Current Games Round Trip Through Gson")
+    public void roundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        Gson gson = new Gson();
+
+        ChessGame loaded = gson.fromJson(gson.toJson(game), ChessGame.class);
+        Assertions.assertEquals(game, loaded);
+        Assertions.assertEquals(game.toFen(), loaded.toFen());
+        Assertions.assertEquals(game.zobristKey(), loaded.zobristKey());
+        Assertions.assertNull(gson.fromJson("null", ChessBoard.class));
+    }
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = GameJsonTests.class.getResourceAsStream(name)) {
+            Assertions.assertNotNull(in, "missing fixture " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class MoveHistoryTests {
+    private static final ChessMove E4 = move(2, 5, 4, 5);
+    private static final ChessMove E5 = move(7, 5, 5, 5);
+    private static final ChessMove NF3 = move(1, 7, 3, 6);
+
+    @Test
+    @DisplayName("History Records Moves In Order")
+    public void recordsMoves() throws InvalidMoveException {
+        ChessGame game = play(E4, E5, NF3);
+        Assertions.assertEquals(List.of(E4, E5, NF3), game.getMoveHistory());
+        Assertions.assertEquals(NF3, game.getLastMove());
+        Assertions.assertEquals(3, game.getPlyCount());
+        Assertions.assertNull(new ChessGame().getLastMove());
+    }
+
+    @Test
+    @DisplayName("Undo Restores Earlier Positions")
+    public void undo() throws InvalidMoveException {
+        ChessGame game = play(E4, E5, NF3);
+        String afterE5 = play(E4, E5).toFen();
+
+        Assertions.assertEquals(NF3, game.undo());
+        Assertions.assertEquals(afterE5, game.toFen());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        game.undo();
+        game.undo();
+        Assertions.assertEquals(new ChessGame().toFen(), game.toFen());
+        Assertions.assertNull(game.undo());
+    }
+
+    @Test
+    @DisplayName("Undo Works After Deserialization")
+    public void undoAfterGson() throws InvalidMoveException {
+        Gson gson = new Gson();
+        ChessGame game = gson.fromJson(gson.toJson(play(E4, E5, NF3)), ChessGame.class);
+        Assertions.assertEquals(3, game.getPlyCount());
+
+        Assertions.assertEquals(NF3, game.undo());
+        Assertions.assertEquals(play(E4, E5).toFen(), game.toFen());
+        game.makeMove(NF3);
+        Assertions.assertEquals(play(E4, E5, NF3).zobristKey(), game.zobristKey());
+    }
+
+    @Test
+    @DisplayName("Moves Pack Without Flags And Back")
+    public void packedMoves() {
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN);
+        for (ChessMove move : List.of(E4, NF3, promotion)) {
+            int packed = PackedMove.fromChessMove(move);
+            Assertions.assertTrue(PackedMove.isUnflagged(packed));
+            Assertions.assertEquals(move, PackedMove.toChessMove(packed));
+        }
+        Assertions.assertFalse(PackedMove.isUnflagged(PackedMove.MOVE_BITS));
+        Assertions.assertFalse(PackedMove.isUnflagged(PackedMove.fromChessMove(E4) | PackedMove.CAPTURE));
+    }
+
+    @Test
+    @DisplayName("Replay To Any Ply")
+    public void replayTo() throws InvalidMoveException {
+        ChessGame game = play(E4, E5, NF3);
+        Assertions.assertEquals(new ChessGame(), game.replayTo(0));
+        Assertions.assertEquals(play(E4).toFen(), game.replayTo(1).toFen());
+        Assertions.assertEquals(List.of(E4), game.replayTo(1).getMoveHistory());
+        Assertions.assertEquals(game.toFen(), game.replayTo(3).toFen());
+        Assertions.assertEquals(3, game.getPlyCount(), "replaying changed the original game");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.replayTo(4));
+
+        ChessGame fromFen = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - - 3 40");
+        fromFen.makeMove(move(8, 5, 7, 5));
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 3 40", fromFen.replayTo(0).toFen());
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 3 40", fromFen.getStartFen());
+    }
+
+    @Test
+    @DisplayName("Setting The Board Starts A New History")
+    public void setBoardClearsHistory() throws InvalidMoveException {
+        ChessGame game = play(E4, E5);
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        game.setBoard(board);
+        Assertions.assertEquals(0, game.getPlyCount());
+    }
+
+    private static ChessGame play(ChessMove... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+        }
+        return game;
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
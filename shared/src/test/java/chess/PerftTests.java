@@ -0,0 +1,76 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class PerftTests {
+
+    @Test
+    @DisplayName("Standard Positions Match Reference Counts")
+    public void standardPositions() {
+        for (Perft.Position position : Perft.STANDARD_POSITIONS) {
+            Perft perft = new Perft(position.maxDepth());
+            for (int depth = 1; depth <= position.maxDepth(); depth++) {
+                Assertions.assertEquals(position.expected()[depth - 1], perft.count(position, depth),
+                        position.name() + " perft(" + depth + ") was wrong");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Perft Leaves Board Unchanged")
+    public void boardRestored() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessBoard original = new ChessBoard(board);
+        long key = board.zobristKey();
+
+        new Perft(3).count(board, ChessGame.TeamColor.WHITE, 3);
+
+        Assertions.assertEquals(original, board, "perft did not restore the board");
+        Assertions.assertEquals(key, board.zobristKey(), "perft did not restore the Zobrist key");
+    }
+
+    @Test
+    @DisplayName("Pawns On Their Own Back Rank Stay On The Board")
+    public void backRankPawns() {
+        // Not reachable in play, but FEN and setBoard can build it
+        ChessBoard board = ChessBoard.fromFen("4k3/8/8/8/8/8/8/4K2p");
+        MoveList captures = new MoveList(16);
+        MoveGenerator.generateCaptures(board, ChessGame.TeamColor.BLACK, captures);
+        MoveList moves = new MoveList(64);
+        MoveGenerator.generateMoves(board, ChessGame.TeamColor.BLACK, moves);
+        for (MoveList list : List.of(captures, moves)) {
+            for (int i = 0; i < list.size(); i++) {
+                Assertions.assertNotEquals(7, PackedMove.from(list.get(i)), "the h1 pawn moved off the board");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel Count Matches Sequential Count")
+    public void parallelMatchesSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Perft.Position position : Perft.STANDARD_POSITIONS) {
+                int depth = position.maxDepth();
+                Perft.Stats stats = Perft.countParallel(Perft.load(position), depth, pool);
+                Assertions.assertEquals(position.expected()[depth - 1], stats.nodes,
+                        position.name() + " parallel perft(" + depth + ") was wrong");
+            }
+
+            List<ChessGame> games = Perft.STANDARD_POSITIONS.stream().map(Perft::load).toList();
+            List<Perft.Stats> results = Perft.countAll(games, 2, pool);
+            for (int i = 0; i < games.size(); i++) {
+                Assertions.assertEquals(Perft.STANDARD_POSITIONS.get(i).expected()[1], results.get(i).nodes,
+                        Perft.STANDARD_POSITIONS.get(i).name() + " batch perft(2) was wrong");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+public class PgnTests {
+    private static final String SCHOLARS_MATE = """
+            [Event "Casual game"]
+            [Site "?"]
+            [Date "2024.01.01"]
+            [Round "?"]
+            [White "Alice"]
+            [Black "Bob \\"The Rook\\""]
+            [Result "1-0"]
+            [Annotator "Carol"]
+
+            1. e4 e5 2. Bc4 Nc6 3. Qh5 Nf6 4. Qxf7# 1-0
+
+            """;
+
+    @Test
+    @DisplayName("SAN Disambiguation And Suffixes")
+    public void sanFormatting() throws InvalidMoveException {
+        San san = new San();
+        ChessGame knights = ChessGame.fromFen("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1");
+        Assertions.assertEquals("Nbd2", san.format(knights, move(1, 2, 2, 4)));
+        Assertions.assertEquals("Nfd2", san.format(knights, move(1, 6, 2, 4)));
+
+        ChessGame rooks = ChessGame.fromFen("4k3/8/8/8/8/R7/8/R3K3 w - - 0 1");
+        Assertions.assertEquals("R1a2", san.format(rooks, move(1, 1, 2, 1)));
+        Assertions.assertEquals("Ra8+", san.format(rooks, move(3, 1, 8, 1)));
+
+        ChessGame promotion = ChessGame.fromFen("7k/1P6/8/8/8/8/8/K7 w - - 0 1");
+        Assertions.assertEquals("b8=Q+", san.format(promotion,
+                new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.QUEEN)));
+        Assertions.assertEquals(move(7, 2, 8, 2, ChessPiece.PieceType.KNIGHT), san.parse(promotion, "b8N"));
+
+        ChessGame castling = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Assertions.assertEquals("O-O", san.format(castling, move(1, 5, 1, 7)));
+        Assertions.assertEquals(move(1, 5, 1, 3), san.parse(castling, "O-O-O"));
+        Assertions.assertEquals(move(1, 5, 1, 3), san.parse(castling, "0-0-0"));
+    }
+
+    @Test
+    @DisplayName("SAN Parsing Rejects Bad Moves")
+    public void sanParsing() throws InvalidMoveException {
+        San san = new San();
+        ChessGame knights = ChessGame.fromFen("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1");
+        Assertions.assertEquals(move(1, 2, 2, 4), san.parse(knights, "Nbd2"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> san.parse(knights, "Nd2"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> san.parse(knights, "Nd4"));
+        Assertions.assertThrows(InvalidMoveException.class, () -> san.parse(knights, "Zz9"));
+    }
+
+    @Test
+    @DisplayName("Reads Tags, Moves And Result")
+    public void readGame() throws IOException {
+        PgnReader reader = new PgnReader(new StringReader(SCHOLARS_MATE));
+        PgnGame game = reader.next();
+        Assertions.assertNotNull(game);
+        Assertions.assertEquals("Bob \"The Rook\"", game.getTag("Black"));
+        Assertions.assertEquals(PgnGame.WHITE_WINS, game.getResult());
+        Assertions.assertEquals(7, game.getPlyCount());
+        Assertions.assertTrue(game.getGame().isInCheckmate(ChessGame.TeamColor.BLACK));
+        Assertions.assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Skips Comments, Variations And Glyphs")
+    public void readAnnotatedGame() throws IOException {
+        String pgn = """
+                [Event "Annotated"]
+
+                1. e4 {best by test} e5 $1 2. Nf3 (2. f4 exf4 (2... d5) 3. Nf3) 2... Nc6 ; a comment
+                3.Bb5 a6!? *
+                """;
+        PgnGame game = new PgnReader(new StringReader(pgn)).next();
+        Assertions.assertEquals(6, game.getPlyCount());
+        Assertions.assertEquals(PgnGame.UNKNOWN, game.getResult());
+        Assertions.assertEquals(move(7, 1, 6, 1), game.getMoves().get(5));
+    }
+
+    @Test
+    @DisplayName("Recovers After A Bad Game")
+    public void recoverAfterBadGame() throws IOException {
+        String pgn = "[Event \"Bad\"]\n\n1. e4 e5 2. Ke3 Nc6 1-0\n\n" + SCHOLARS_MATE;
+        PgnReader reader = new PgnReader(new StringReader(pgn));
+        PgnFormatException e = Assertions.assertThrows(PgnFormatException.class, reader::next);
+        Assertions.assertTrue(e.getMessage().contains("Ke3"), e.getMessage());
+        Assertions.assertEquals("Casual game", reader.next().getTag("Event"));
+        Assertions.assertNull(reader.next());
+        Assertions.assertEquals(2, reader.getGamesRead());
+    }
+
+    @Test
+    @DisplayName("Written Game Reads Back The Same")
+    public void writeAndRead() throws IOException, InvalidMoveException {
+        PgnGame game = new PgnReader(new StringReader(SCHOLARS_MATE)).next();
+        StringWriter out = new StringWriter();
+        new PgnWriter(out).write(game);
+        Assertions.assertEquals(SCHOLARS_MATE, out.toString());
+
+        PgnGame fromPosition = new PgnGame("4k3/8/8/8/8/8/8/1N2KN2 b - - 0 30");
+        fromPosition.addMove(move(8, 5, 7, 5));
+        fromPosition.addMove(move(1, 2, 2, 4));
+        out = new StringWriter();
+        new PgnWriter(out).write(fromPosition);
+        Assertions.assertTrue(out.toString().contains("30... Ke7 31. Nbd2 *"), out.toString());
+
+        PgnGame reread = new PgnReader(new StringReader(out.toString())).next();
+        Assertions.assertEquals(fromPosition.getMoves(), reread.getMoves());
+        Assertions.assertEquals(fromPosition.getGame(), reread.getGame());
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return move(fromRow, fromCol, toRow, toCol, null);
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), promotion);
+    }
+}
@@ -0,0 +1,81 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ParallelSearchTests {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Helpers Find The Same Mate")
+    public void mate() {
+        ChessGame game = ChessGame.fromFen("k7/8/8/8/8/8/6R1/5R1K w - - 0 1");
+        try (ParallelSearch search = new ParallelSearch(4, new TranspositionTable(4))) {
+            SearchResult result = search.search(game, SearchLimits.depth(6));
+            Assertions.assertTrue(result.isMate(), "expected a mate score but got " + result.score());
+            Assertions.assertEquals(2, result.mateIn());
+        }
+    }
+
+    @Test
+    @DisplayName("Counts Nodes From Every Thread")
+    public void helpersSearch() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        SearchResult single = new Search(new TranspositionTable(4)).search(game, SearchLimits.depth(5));
+        try (ParallelSearch search = new ParallelSearch(4, new TranspositionTable(4))) {
+            Assertions.assertEquals(4, search.getThreadCount());
+            SearchResult parallel = search.search(game, SearchLimits.depth(5));
+            Assertions.assertEquals(5, parallel.depth());
+            Assertions.assertNotNull(parallel.bestMove());
+            Assertions.assertTrue(parallel.nodes() > single.nodes() / 2,
+                    "parallel search counted " + parallel.nodes() + " nodes");
+
+            // The instance can be reused, and the game is left alone
+            SearchResult again = search.search(game, SearchLimits.depth(3));
+            Assertions.assertEquals(3, again.depth());
+            Assertions.assertEquals(ChessGame.fromFen(KIWIPETE), game);
+        }
+    }
+
+    @Test
+    @DisplayName("Searches A Deserialized Game With History")
+    public void deserializedGame() throws InvalidMoveException {
+        ChessGame played = new ChessGame();
+        for (int i = 0; i < 2; i++) {
+            played.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+            played.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+            played.makeMove(new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null));
+            played.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null));
+        }
+        Gson gson = new Gson();
+        String json = gson.toJson(played);
+
+        try (ParallelSearch search = new ParallelSearch(4, new TranspositionTable(4))) {
+            for (int i = 0; i < 10; i++) {
+                // Position keys are not serialized, so each copy has to rebuild them
+                ChessGame game = gson.fromJson(json, ChessGame.class);
+                SearchResult result = search.search(game, SearchLimits.depth(3));
+                Assertions.assertNotNull(result.bestMove());
+                Assertions.assertArrayEquals(played.getReversiblePositionKeys(), game.getReversiblePositionKeys());
+                Assertions.assertEquals(3, game.repetitionCount());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Stops Every Thread On The Time Limit")
+    public void timeLimit() {
+        try (ParallelSearch search = new ParallelSearch(3, new TranspositionTable(4))) {
+            search.search(new ChessGame(), SearchLimits.depth(3));
+            SearchResult result = search.search(new ChessGame(), SearchLimits.time(100));
+            Assertions.assertNotNull(result.bestMove());
+            Assertions.assertTrue(result.timeMillis() < 1000, "took " + result.timeMillis() + " ms");
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void mateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(move(1, 1, 8, 1), result.bestMove());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(1, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Finds Mate In Two")
+    public void mateInTwo() throws InvalidMoveException {
+        // 1. Rg7 Kb8 2. Rf8#
+        ChessGame game = ChessGame.fromFen("k7/8/8/8/8/8/6R1/5R1K w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(6));
+        Assertions.assertTrue(result.isMate(), "expected a mate score but got " + result.score());
+        Assertions.assertEquals(2, result.mateIn());
+
+        // The principal variation must be playable
+        ChessGame replay = new ChessGame(game);
+        for (ChessMove move : result.principalVariation()) {
+            replay.makeMove(move);
+        }
+        Assertions.assertTrue(replay.status().isCheckmate());
+    }
+
+    @Test
+    @DisplayName("Wins Hanging Material")
+    public void winsMaterial() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+        Assertions.assertEquals(move(2, 4, 5, 4), result.bestMove());
+        Assertions.assertTrue(result.score() > 300, "score was " + result.score());
+    }
+
+    @Test
+    @DisplayName("No Move When Game Is Over")
+    public void noLegalMoves() {
+        ChessGame stalemate = ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        SearchResult result = new Search().search(stalemate, SearchLimits.depth(3));
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(0, result.score());
+    }
+
+    @Test
+    @DisplayName("Respects Time And Node Budgets")
+    public void limits() {
+        ChessGame game = new ChessGame();
+        Search search = new Search();
+        // Warm up first so class loading is not counted against the budget
+        search.search(game, SearchLimits.depth(3));
+        SearchResult timed = search.search(game, SearchLimits.time(50));
+        Assertions.assertNotNull(timed.bestMove());
+        Assertions.assertTrue(timed.timeMillis() < 500, "took " + timed.timeMillis() + " ms");
+        Assertions.assertTrue(timed.depth() >= 3, "only reached depth " + timed.depth());
+
+        SearchResult counted = new Search().search(game, SearchLimits.nodes(20_000));
+        Assertions.assertNotNull(counted.bestMove());
+        Assertions.assertTrue(counted.nodes() < 30_000, "searched " + counted.nodes() + " nodes");
+        Assertions.assertEquals(game, new ChessGame(), "search modified the game");
+    }
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+}
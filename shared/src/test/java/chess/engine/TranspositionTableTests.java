@@ -0,0 +1,89 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PackedMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Stores And Probes Entries")
+    public void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x9E3779B97F4A7C15L;
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key));
+
+        int move = PackedMove.CAPTURE | 28 << 6 | 12;
+        table.store(key, move, -215, 7, TranspositionTable.LOWER_BOUND);
+        long entry = table.probe(key);
+        Assertions.assertNotEquals(TranspositionTable.MISS, entry);
+        Assertions.assertEquals(move, TranspositionTable.move(entry));
+        Assertions.assertEquals(-215, TranspositionTable.score(entry, 3));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(entry));
+
+        // Same bucket, different key
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key ^ 1L << 62));
+        table.clear();
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key));
+    }
+
+    @Test
+    @DisplayName("Mate Scores Are Relative To The Position")
+    public void mateScores() {
+        TranspositionTable table = new TranspositionTable(1);
+        // Mate found 5 plies from the root, stored at ply 2: mate in 3 from the position itself
+        int score = Search.MATE - 5;
+        table.store(42, PackedMove.NONE, TranspositionTable.toStored(score, 2), 4, TranspositionTable.EXACT);
+        long entry = table.probe(42);
+        Assertions.assertEquals(Search.MATE - 5, TranspositionTable.score(entry, 2));
+        Assertions.assertEquals(Search.MATE - 7, TranspositionTable.score(entry, 4));
+
+        table.store(43, PackedMove.NONE, TranspositionTable.toStored(-score, 2), 4, TranspositionTable.EXACT);
+        Assertions.assertEquals(-Search.MATE + 3, TranspositionTable.score(table.probe(43), 0));
+    }
+
+    @Test
+    @DisplayName("Replaces Shallow And Stale Entries First")
+    public void replacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long buckets = table.capacity() / 4;
+        // Five keys that all land in bucket 0
+        long[] keys = new long[5];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (i + 1) * buckets;
+        }
+        for (int i = 0; i < 4; i++) {
+            table.store(keys[i], PackedMove.NONE, 0, 10 - i, TranspositionTable.EXACT);
+        }
+        table.store(keys[4], PackedMove.NONE, 0, 9, TranspositionTable.EXACT);
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(keys[3]), "shallowest entry kept");
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(keys[4]));
+
+        // A shallower result for the same position does not overwrite a deeper one from this search
+        table.store(keys[0], PackedMove.NONE, 50, 2, TranspositionTable.LOWER_BOUND);
+        Assertions.assertEquals(10, TranspositionTable.depth(table.probe(keys[0])));
+
+        // Entries from old searches go before deep ones from this search
+        for (int i = 0; i < 3; i++) {
+            table.newSearch();
+        }
+        table.store(keys[3], PackedMove.NONE, 0, 1, TranspositionTable.EXACT);
+        Assertions.assertNotEquals(TranspositionTable.MISS, table.probe(keys[3]));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(keys[2]), "stale entry kept");
+    }
+
+    @Test
+    @DisplayName("Repeated Search Reuses The Table")
+    public void reuse() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Search search = new Search(new TranspositionTable(8));
+        SearchResult first = search.search(game, SearchLimits.depth(5));
+        SearchResult second = search.search(game, SearchLimits.depth(5));
+        Assertions.assertTrue(second.nodes() * 2 < first.nodes(),
+                "first search " + first.nodes() + " nodes, second " + second.nodes());
+        Assertions.assertEquals(first.bestMove(), second.bestMove());
+    }
+}